@@ -0,0 +1,58 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Model.AuditActivity;
+import com.dgapr.demo.Repository.AuditActivityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per-user activity counters of {@link AuditActivity}. Durable: counters are updated in
+ * the relay transaction, so each entry is counted exactly once. A batch is first aggregated by
+ * (user, day, table, operation), then each key costs one {@code UPDATE}, plus an insert the first time.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditActivitySink implements AuditSink {
+
+    private final AuditActivityRepository activityRepository;
+
+    @Override
+    public String name() {
+        return "activity";
+    }
+
+    @Override
+    public boolean durable() {
+        return true;
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        Map<Key, Long> counts = new LinkedHashMap<>();
+        for (AuditRecord record : batch) {
+            Key key = new Key(record.modifiedBy(), LocalDate.ofInstant(record.timestamp(), ZoneOffset.UTC),
+                    record.tableName(), record.operation());
+            counts.merge(key, 1L, Long::sum);
+        }
+        counts.forEach((key, count) -> {
+            if (activityRepository.increment(key.user(), key.day(), key.table(), key.operation(), count) > 0) return;
+            // first entry for this key; a concurrent relay inserting the same key fails on the unique
+            // constraint, and its batch is retried on its next run
+            AuditActivity activity = new AuditActivity();
+            activity.setModifiedBy(key.user());
+            activity.setDay(key.day());
+            activity.setTableName(key.table());
+            activity.setOperation(key.operation());
+            activity.setEntryCount(count);
+            activityRepository.save(activity);
+        });
+    }
+
+    private record Key(String user, LocalDate day, String table, String operation) { }
+}
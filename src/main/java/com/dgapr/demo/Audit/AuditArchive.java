@@ -0,0 +1,163 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogEntry;
+import com.dgapr.demo.Dto.AuditDto.AuditLogFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local archive of audit entries removed from {@code audit_log} by the retention job.
+ *
+ * <p>Each month is one gzip-compressed NDJSON file, {@code audit-log-YYYY-MM.ndjson.gz}, holding one
+ * {@link AuditLogEntry} per line in the order of the audit query API (newest first), so a search
+ * streams the files from the newest month and stops as soon as a page is full.</p>
+ */
+@Slf4j
+@Component
+public class AuditArchive {
+
+    private static final Pattern FILE_NAME = Pattern.compile("audit-log-(\\d{4}-\\d{2})\\.ndjson\\.gz");
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    public AuditArchive(ObjectMapper objectMapper, @Value("${audit.archive.dir:audit-archive}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Writes the archive of a month, replacing any previous one. The file is written under a temporary
+     * name and moved into place, so a failed run never leaves a truncated archive behind.
+     *
+     * @param month   the month of the entries
+     * @param entries the entries, newest first
+     * @return the number of entries written
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public long write(YearMonth month, Stream<AuditLogEntry> entries) {
+        Path target = directory.resolve(fileName(month));
+        Path tmp = directory.resolve(fileName(month) + ".tmp");
+        long count = 0;
+        try {
+            Files.createDirectories(directory);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+                for (Iterator<AuditLogEntry> it = entries.iterator(); it.hasNext(); ) {
+                    out.write(objectMapper.writeValueAsString(it.next()));
+                    out.write('\n');
+                    count++;
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write audit archive " + target, e);
+        }
+        return count;
+    }
+
+    /**
+     * Searches the archives with the same criteria and ordering as the live table.
+     *
+     * @param filter         the criteria
+     * @param afterTimestamp timestamp of the last entry of the previous page, or {@code null} for the first page
+     * @param afterId        audit id of the last entry of the previous page
+     * @param limit          the maximum number of entries to return
+     * @return the matching entries, newest first
+     * @throws UncheckedIOException if an archive cannot be read
+     */
+    public List<AuditLogEntry> search(AuditLogFilter filter, Instant afterTimestamp, Long afterId, int limit) {
+        List<AuditLogEntry> found = new ArrayList<>();
+        for (YearMonth month : months()) {
+            Instant start = month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant end = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+            // skip whole files outside the time range or before the cursor position
+            if ((filter.from() != null && !end.isAfter(filter.from()))
+                    || (filter.to() != null && !start.isBefore(filter.to()))
+                    || (afterTimestamp != null && afterTimestamp.isBefore(start))) {
+                continue;
+            }
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(directory.resolve(fileName(month)))), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    AuditLogEntry entry = objectMapper.readValue(line, AuditLogEntry.class);
+                    if (filter.from() != null && entry.timestamp().isBefore(filter.from())) break; // newest first
+                    if (afterTimestamp != null && !isBefore(entry, afterTimestamp, afterId)) continue;
+                    if (!filter.matches(entry)) continue;
+                    found.add(entry);
+                    if (found.size() == limit) return found;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read audit archive for " + month, e);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the archived months, newest first
+     */
+    public List<YearMonth> months() {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> FILE_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> parseMonth(m.group(1)))
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list audit archives in " + directory, e);
+        }
+    }
+
+    /** {@code (timestamp, auditId) < (afterTimestamp, afterId)} */
+    private static boolean isBefore(AuditLogEntry entry, Instant afterTimestamp, Long afterId) {
+        int byTime = entry.timestamp().compareTo(afterTimestamp);
+        return byTime < 0 || (byTime == 0 && entry.auditId() < afterId);
+    }
+
+    private static YearMonth parseMonth(String value) {
+        try {
+            return YearMonth.parse(value);
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring audit archive with an invalid month: {}", value);
+            return null;
+        }
+    }
+
+    private static String fileName(YearMonth month) {
+        return "audit-log-" + month + ".ndjson.gz";
+    }
+}
@@ -0,0 +1,122 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Audit.AuditedTypes.AuditedType;
+import com.dgapr.demo.Model.SoftDeletableEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Records creations, updates and deletions of audited entities (those declaring {@link AuditListener}
+ * in {@code @EntityListeners}).
+ *
+ * <p>Registered as a Hibernate post-insert/update/delete listener, it reads the typed property values
+ * of the row from the event, so details are built without serialising the entity. For updates, it
+ * receives the indexes of the properties Hibernate found dirty together with their loaded and new
+ * values, so the audit diff is built from the changed fields only: no JSON snapshot is taken when an
+ * entity is loaded, and nothing is compared for the untouched fields. With {@code @DynamicUpdate},
+ * those are also the only columns in the UPDATE statement.</p>
+ *
+ * <p>Entries go to {@link AuditOutboxWriter}, which writes them in the transaction of the change.</p>
+ *
+ * <p>Which properties are audited, and how their values are reported, is resolved once per entity
+ * class by {@link AuditedTypes}, as property indexes of the Hibernate persister. Building an entry is
+ * then a loop over those indexes; the row id is the one carried by the event.</p>
+ *
+ * <p>Nothing is done while {@link AuditContext} suppresses auditing: the flag is checked first.</p>
+ *
+ * <p>An update that sets {@code isDeleted} on a {@link SoftDeletableEntity} is logged as {@code DELETE};
+ * an entity removal as {@code HARD_DELETE}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditedTypes auditedTypes;
+    private final AuditOutboxWriter outboxWriter;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (AuditContext.isAuditDisabled()) return;
+        AuditedType type = auditedTypes.of(event.getEntity().getClass());
+        if (type == null) return;
+        outboxWriter.add(event.getSession(), type.table(), idOf(event.getId()), "CREATE",
+                AuditDetails.snapshot(type.snapshot(event.getId(), event.getState())));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (AuditContext.isAuditDisabled()) return;
+        AuditedType type = auditedTypes.of(event.getEntity().getClass());
+        if (type == null) return;
+        outboxWriter.add(event.getSession(), type.table(), idOf(event.getId()), "HARD_DELETE",
+                AuditDetails.snapshot(type.snapshot(event.getId(), event.getDeletedState())));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (AuditContext.isAuditDisabled()) return;
+        Object entity = event.getEntity();
+        AuditedType type = auditedTypes.of(entity.getClass());
+        if (type == null) return;
+
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        // No dirty set (e.g. a detached entity merged without its loaded state): report every property
+        int[] dirty = event.getDirtyProperties() != null
+                ? event.getDirtyProperties()
+                : type.properties();
+
+        Map<String, Object> before = new LinkedHashMap<>();
+        Map<String, Object> after = new LinkedHashMap<>();
+        for (int i : dirty) {
+            if (!type.audited()[i]) continue;
+            Object oldValue = oldState == null ? null : oldState[i];
+            Object newValue = state[i];
+            if (oldState != null && Objects.equals(oldValue, newValue)) continue;
+            before.put(type.names()[i], type.render(i, oldValue));
+            after.put(type.names()[i], type.render(i, newValue));
+        }
+        if (after.isEmpty()) return;
+
+        boolean softDel = (entity instanceof SoftDeletableEntity)
+                && Boolean.TRUE.equals(((SoftDeletableEntity) entity).getIsDeleted());
+        outboxWriter.add(event.getSession(), type.table(), idOf(event.getId()), softDel ? "DELETE" : "UPDATE",
+                AuditDetails.diff(before, after));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static String idOf(Object id) {
+        return id == null ? "UNKNOWN" : id.toString();
+    }
+}
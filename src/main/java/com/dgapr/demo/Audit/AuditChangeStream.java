@@ -0,0 +1,251 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.ChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory fan-out of committed entity changes to server-sent-event subscribers.
+ *
+ * <p>Fed by {@link AuditOutboxRelay} as an asynchronous {@link AuditSink}, so only committed changes
+ * are streamed. Each change gets the next offset of this instance and is kept in a replay ring of
+ * {@code changes.stream.replay-capacity} events. A subscriber passing the last offset it received
+ * first gets the changes it missed from that ring; if they are no longer all there (or the instance
+ * restarted), it gets a {@code reset} event instead, telling it to reload its data once.</p>
+ *
+ * <p>A batch the dispatcher drops because this sink fell behind still consumes offsets, left empty in
+ * the ring: open subscribers get a {@code reset} right away, and one resuming across those offsets
+ * gets a {@code reset} rather than a replay with a hole in it.</p>
+ *
+ * <p>Each subscriber has a bounded queue of {@code changes.stream.buffer} events, drained by its own
+ * virtual thread. Publishing never blocks on a client: a subscriber whose queue is full is
+ * disconnected, and resumes from its last offset when it reconnects.</p>
+ */
+@Slf4j
+@Component
+public class AuditChangeStream implements AuditSink {
+
+    private static final String CHANGE = "change";
+    private static final String RESET = "reset";
+
+    private final AuditDetailsCodec codec;
+    private final int bufferSize;
+    private final long heartbeatMillis;
+    private final ChangeEvent[] replay;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Offset of the next change; offsets start at 1. */
+    private long nextOffset = 1;
+
+    public AuditChangeStream(AuditDetailsCodec codec,
+                             @Value("${changes.stream.replay-capacity:1000}") int replayCapacity,
+                             @Value("${changes.stream.buffer:256}") int bufferSize,
+                             @Value("${changes.stream.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.codec = codec;
+        this.replay = new ChangeEvent[replayCapacity];
+        this.bufferSize = bufferSize;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    @Override
+    public String name() {
+        return "change-stream";
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        // decoded outside the lock
+        List<List<String>> fields = batch.stream().map(record -> fieldNames(record.detailsData())).toList();
+        synchronized (this) {
+            for (int i = 0; i < batch.size(); i++) {
+                AuditRecord record = batch.get(i);
+                ChangeEvent event = new ChangeEvent(nextOffset, record.tableName(), record.rowId(), record.operation(),
+                        record.modifiedBy(), record.timestamp(), fields.get(i));
+                replay[(int) (nextOffset++ % replay.length)] = event;
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips the offsets of a batch that never reached {@link #write}, and tells every subscriber to
+     * reload; the {@code reset} event carries the new last offset, so a client resumes after the gap.
+     */
+    @Override
+    public synchronized void dropped(List<AuditRecord> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            replay[(int) (nextOffset++ % replay.length)] = null;
+        }
+        ChangeEvent reset = resetMarker(nextOffset - 1);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(reset);
+        }
+    }
+
+    /**
+     * Opens a subscription.
+     *
+     * @param tables     only changes of these tables, or all when empty
+     * @param lastOffset the offset of the last change the client received, or {@code null} for live changes only
+     * @param timeout    the connection timeout in milliseconds, after which the client reconnects
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(Set<String> tables, Long lastOffset, long timeout) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter, tables);
+        synchronized (this) {
+            Backlog backlog = backlog(tables, lastOffset);
+            if (backlog.reset()) {
+                subscriber.queue.offer(resetMarker(backlog.head()));
+            } else {
+                backlog.missed().forEach(subscriber.queue::offer);
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        Thread.ofVirtual().name("change-stream-subscriber").start(subscriber::run);
+        return emitter;
+    }
+
+    /**
+     * What a subscriber resuming after {@code lastOffset} is sent before the live changes.
+     *
+     * @param tables     only changes of these tables, or all when empty
+     * @param lastOffset the offset of the last change the client received, or {@code null} for live changes only
+     * @return the changes it missed or, when they cannot all be replayed, a reset
+     */
+    synchronized Backlog backlog(Set<String> tables, Long lastOffset) {
+        long head = nextOffset - 1;
+        if (lastOffset == null || lastOffset == head) return new Backlog(List.of(), false, head);
+        // an offset from before a restart
+        if (lastOffset > head) return new Backlog(List.of(), true, head);
+        long oldest = Math.max(1, nextOffset - replay.length);
+        if (lastOffset + 1 < oldest) return new Backlog(List.of(), true, head);
+        List<ChangeEvent> missed = new ArrayList<>();
+        for (long offset = lastOffset + 1; offset <= head; offset++) {
+            ChangeEvent event = replay[(int) (offset % replay.length)];
+            // a dropped batch
+            if (event == null) return new Backlog(List.of(), true, head);
+            if (wants(tables, event)) missed.add(event);
+        }
+        if (missed.size() > bufferSize) return new Backlog(List.of(), true, head);
+        return new Backlog(missed, false, head);
+    }
+
+    /**
+     * @param missed the changes to replay, oldest first
+     * @param reset  whether the client must reload instead
+     * @param head   the offset of the last change published
+     */
+    record Backlog(List<ChangeEvent> missed, boolean reset, long head) {
+    }
+
+    private static boolean wants(Set<String> tables, ChangeEvent event) {
+        return tables.isEmpty() || tables.contains(event.table());
+    }
+
+    /** Queued like a change, sent as a {@code reset} event with {@code offset} as its id. */
+    private static ChangeEvent resetMarker(long offset) {
+        return new ChangeEvent(offset, null, null, RESET, null, null, List.of());
+    }
+
+    private static boolean isReset(ChangeEvent event) {
+        return event.table() == null && RESET.equals(event.operation());
+    }
+
+    private List<String> fieldNames(byte[] detailsData) {
+        try {
+            return codec.fieldNames(detailsData);
+        } catch (IllegalArgumentException e) {
+            log.warn("Could not read the fields of an audit entry: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * @return the number of open subscriptions
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> tables;
+        private final BlockingQueue<ChangeEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private volatile boolean closed;
+        private volatile boolean overflowed;
+        private volatile Thread sender;
+
+        Subscriber(SseEmitter emitter, Set<String> tables) {
+            this.emitter = emitter;
+            this.tables = tables;
+        }
+
+        /** Called under the stream lock; never blocks. */
+        void offer(ChangeEvent event) {
+            if (closed || !(isReset(event) || wants(tables, event))) return;
+            if (!queue.offer(event)) {
+                overflowed = true;
+                close();
+            }
+        }
+
+        void run() {
+            sender = Thread.currentThread();
+            try {
+                while (!closed) {
+                    ChangeEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else if (isReset(event)) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.offset()))
+                                .name(RESET)
+                                .data("{}", MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.offset()))
+                                .name(CHANGE)
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change stream subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+                if (overflowed) {
+                    log.info("Change stream subscriber fell {} events behind and was disconnected", bufferSize);
+                }
+                emitter.complete();
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            subscribers.remove(this);
+            Thread thread = sender;
+            if (thread != null && thread != Thread.currentThread()) thread.interrupt();
+        }
+    }
+}
@@ -2,14 +2,58 @@ package com.dgapr.demo.Audit;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Per-thread switch that suppresses auditing.
+ *
+ * <p>Prefer the scoped form, which restores the previous state even when nested or when the block
+ * throws:</p>
+ * <pre>{@code
+ * try (AuditContext.Suppression ignored = AuditContext.suppress()) {
+ *     userService.revokeTokens(id);
+ * }
+ * }</pre>
+ * <p>or {@link WithoutAudit} on a Spring bean method. The flag is checked at the very start of every
+ * audit callback, so a suppressed change costs nothing beyond the entity write itself.</p>
+ *
+ * <p>The state is a {@link ThreadLocal}, which virtual threads carry like platform threads; since every
+ * scope removes what it set, a pooled or virtual thread never keeps a stale flag.</p>
+ */
 @Slf4j
 public class AuditContext {
 
     private static final ThreadLocal<Boolean> auditDisabledFlag = new ThreadLocal<>();
 
+    /**
+     * A scope during which auditing is suppressed; closing it restores the previous state.
+     */
+    @FunctionalInterface
+    public interface Suppression extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Suppresses auditing for the current thread until the returned scope is closed.
+     *
+     * @return the scope, to be closed (try-with-resources)
+     */
+    public static Suppression suppress() {
+        Boolean previous = auditDisabledFlag.get();
+        auditDisabledFlag.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                auditDisabledFlag.remove();
+            } else {
+                auditDisabledFlag.set(previous);
+            }
+        };
+    }
+
     /**
      * Disables auditing for the current thread.
+     * @deprecated use {@link #suppress()}, which cannot leak the flag past its scope
      */
+    @Deprecated
     public static void disableAudit() {
         auditDisabledFlag.set(Boolean.TRUE);
     }
@@ -17,7 +61,9 @@ public class AuditContext {
     /**
      * Clears the audit-disabled flag for the current thread, re-enabling auditing
      * (or reverting to the default state).
+     * @deprecated use {@link #suppress()}
      */
+    @Deprecated
     public static void clear() {
         if (auditDisabledFlag.get() == null) {
             log.warn("AuditContext.clear() was called but auditing was not disabled. Possible mismanagement?");
@@ -33,4 +79,4 @@ public class AuditContext {
         Boolean isDisabled = auditDisabledFlag.get();
         return Boolean.TRUE.equals(isDisabled);
     }
-}
\ No newline at end of file
+}
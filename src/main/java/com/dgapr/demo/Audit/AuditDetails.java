@@ -0,0 +1,41 @@
+package com.dgapr.demo.Audit;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The details of an audit entry, kept as typed values until {@link AuditDetailsCodec} encodes them.
+ *
+ * <ul>
+ *   <li>{@link Kind#SNAPSHOT}: the fields of a created or deleted row, in {@code after}</li>
+ *   <li>{@link Kind#DIFF}: the changed fields of an updated row, old values in {@code before}, new ones in {@code after}</li>
+ *   <li>{@link Kind#TEXT}: free text, e.g. an error message</li>
+ * </ul>
+ *
+ * @param kind   what the details describe
+ * @param after  field values (snapshot) or new values (diff), in field order; empty for text
+ * @param before old values of a diff, with the same keys as {@code after}; empty otherwise
+ * @param text   the text of {@link Kind#TEXT} details, {@code null} otherwise
+ */
+public record AuditDetails(Kind kind, Map<String, Object> after, Map<String, Object> before, String text) {
+
+    public enum Kind { SNAPSHOT, DIFF, TEXT }
+
+    public static AuditDetails snapshot(Map<String, Object> values) {
+        return new AuditDetails(Kind.SNAPSHOT, unmodifiable(values), Map.of(), null);
+    }
+
+    public static AuditDetails diff(Map<String, Object> before, Map<String, Object> after) {
+        return new AuditDetails(Kind.DIFF, unmodifiable(after), unmodifiable(before), null);
+    }
+
+    public static AuditDetails text(String text) {
+        return new AuditDetails(Kind.TEXT, Map.of(), Map.of(), text);
+    }
+
+    // values may be null, which Map.copyOf does not allow
+    private static Map<String, Object> unmodifiable(Map<String, Object> values) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+}
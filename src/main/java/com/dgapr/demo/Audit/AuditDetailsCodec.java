@@ -0,0 +1,375 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogEntry;
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of {@link AuditDetails}, stored in {@code audit_log.details_data}, and its decoding
+ * back to the JSON returned by the audit API.
+ *
+ * <p>Layout (varints are unsigned LEB128, signed values zig-zag encoded first):</p>
+ * <pre>
+ * header   1 byte: format version, high bit set when the rest is deflated (raw DEFLATE, no zlib header)
+ * kind     1 byte: 0 snapshot, 1 diff, 2 text
+ * text     string
+ * snapshot varint n, then n x (varint field id, value)
+ * diff     varint n, then n x (varint field id, old value, new value)
+ * value    1 byte tag, then:
+ *          NULL, FALSE, TRUE  nothing
+ *          LONG               zig-zag varint
+ *          DOUBLE             8 bytes, IEEE 754
+ *          STRING, DECIMAL    varint byte length, UTF-8
+ *          DATE               zig-zag varint epoch day
+ *          INSTANT, DATETIME  zig-zag varint epoch second (UTC), varint nanoseconds
+ *          UUID               16 bytes
+ *          BYTES              varint length, bytes
+ * </pre>
+ *
+ * <p>Field ids come from {@link AuditFieldDictionary}, so names are stored once per table rather than
+ * in every row. Payloads of at least {@value #COMPRESS_MIN} bytes are deflated when that makes them
+ * smaller. Nothing is truncated.</p>
+ */
+@Component
+public class AuditDetailsCodec {
+
+    static final int FORMAT_VERSION = 1;
+    static final int COMPRESSED = 0x80;
+    static final int COMPRESS_MIN = 128;
+
+    private static final int NULL = 0, FALSE = 1, TRUE = 2, LONG = 3, DOUBLE = 4, STRING = 5, DECIMAL = 6,
+            DATE = 7, INSTANT = 8, DATETIME = 9, UUID_TAG = 10, BYTES = 11;
+
+    private final AuditFieldDictionary dictionary;
+    private final ObjectMapper objectMapper;
+
+    public AuditDetailsCodec(AuditFieldDictionary dictionary, ObjectMapper objectMapper) {
+        this.dictionary = dictionary;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param table   the audited table, scope of the field ids
+     * @param details the details to encode
+     * @return the encoded details
+     */
+    public byte[] encode(String table, AuditDetails details) {
+        Out out = new Out();
+        out.write(details.kind().ordinal());
+        switch (details.kind()) {
+            case TEXT -> out.string(details.text());
+            case SNAPSHOT -> {
+                out.varint(details.after().size());
+                for (Map.Entry<String, Object> field : details.after().entrySet()) {
+                    out.varint(dictionary.idOf(table, field.getKey()));
+                    out.value(field.getValue());
+                }
+            }
+            case DIFF -> {
+                out.varint(details.after().size());
+                for (Map.Entry<String, Object> field : details.after().entrySet()) {
+                    out.varint(dictionary.idOf(table, field.getKey()));
+                    out.value(details.before().get(field.getKey()));
+                    out.value(field.getValue());
+                }
+            }
+        }
+        byte[] body = out.toByteArray();
+        byte[] compressed = body.length >= COMPRESS_MIN ? deflate(body) : null;
+        boolean deflated = compressed != null && compressed.length < body.length;
+        byte[] payload = deflated ? compressed : body;
+
+        byte[] encoded = new byte[payload.length + 1];
+        encoded[0] = (byte) (FORMAT_VERSION | (deflated ? COMPRESSED : 0));
+        System.arraycopy(payload, 0, encoded, 1, payload.length);
+        return encoded;
+    }
+
+    /**
+     * Decodes details to the JSON shape of the former text column: an object of field values for a
+     * snapshot, an object of {@code {"old": ..., "new": ...}} per field for a diff, the text itself otherwise.
+     *
+     * @param encoded details produced by {@link #encode}
+     * @return the details as JSON (or text)
+     * @throws IllegalArgumentException if the data is not in a known format
+     */
+    public String decode(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) return "";
+        JsonNode json = decodeTree(encoded);
+        if (json.isTextual()) return json.textValue();
+        try {
+            return objectMapper.writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not render audit details", e);
+        }
+    }
+
+    /**
+     * Same as {@link #decode}, as a JSON tree: an object for a snapshot or a diff, a text node for text.
+     *
+     * @param encoded details produced by {@link #encode}
+     * @return the details as a JSON tree
+     * @throws IllegalArgumentException if the data is not in a known format
+     */
+    public JsonNode decodeTree(byte[] encoded) {
+        In in = body(encoded);
+
+        int kind = in.read();
+        if (kind == AuditDetails.Kind.TEXT.ordinal()) return JsonNodeFactory.instance.textNode(in.string());
+
+        ObjectNode json = JsonNodeFactory.instance.objectNode();
+        int count = in.varint();
+        for (int i = 0; i < count; i++) {
+            String field = fieldName(in.varint());
+            if (kind == AuditDetails.Kind.DIFF.ordinal()) {
+                ObjectNode change = json.putObject(field);
+                change.set("old", in.value());
+                change.set("new", in.value());
+            } else {
+                json.set(field, in.value());
+            }
+        }
+        return json;
+    }
+
+    /**
+     * Reads only the field names of encoded details, skipping the values.
+     *
+     * @param encoded details produced by {@link #encode}
+     * @return the fields of a snapshot or the changed fields of a diff, in order; empty for text
+     * @throws IllegalArgumentException if the data is not in a known format
+     */
+    public List<String> fieldNames(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) return List.of();
+        In in = body(encoded);
+        int kind = in.read();
+        if (kind == AuditDetails.Kind.TEXT.ordinal()) return List.of();
+
+        int count = in.varint();
+        List<String> fields = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            fields.add(fieldName(in.varint()));
+            in.value();
+            if (kind == AuditDetails.Kind.DIFF.ordinal()) in.value();
+        }
+        return fields;
+    }
+
+    /**
+     * @param row an audit row as stored
+     * @return the row as returned by the API, with its details decoded (rows written before the binary
+     * format keep their text details)
+     */
+    public AuditLogEntry toEntry(AuditLogRow row) {
+        String details = row.detailsData() != null ? decode(row.detailsData()) : row.details();
+        return new AuditLogEntry(row.auditId(), row.tableName(), row.rowId(), row.operation(),
+                row.modifiedBy(), row.timestamp(), details);
+    }
+
+    private String fieldName(int id) {
+        try {
+            return dictionary.nameOf(id);
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException(e.getMessage() + " in audit details", e);
+        }
+    }
+
+    /** Checks the header and returns a reader over the (inflated) body. */
+    private static In body(byte[] encoded) {
+        int version = encoded[0] & ~COMPRESSED;
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown audit details format " + version);
+        }
+        byte[] body = Arrays.copyOfRange(encoded, 1, encoded.length);
+        return new In((encoded[0] & COMPRESSED) != 0 ? inflate(body) : body);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated audit details");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt audit details", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Out extends ByteArrayOutputStream {
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void string(String value) {
+            bytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void bytes(byte[] value) {
+            varint(value.length);
+            write(value, 0, value.length);
+        }
+
+        void value(Object value) {
+            if (value == null) {
+                write(NULL);
+            } else if (value instanceof Boolean b) {
+                write(b ? TRUE : FALSE);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                write(LONG);
+                zigzag(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                write(DOUBLE);
+                long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) write((int) (bits >>> shift));
+            } else if (value instanceof BigDecimal d) {
+                write(DECIMAL);
+                string(d.toPlainString());
+            } else if (value instanceof LocalDate d) {
+                write(DATE);
+                zigzag(d.toEpochDay());
+            } else if (value instanceof Instant t) {
+                write(INSTANT);
+                zigzag(t.getEpochSecond());
+                varint(t.getNano());
+            } else if (value instanceof LocalDateTime t) {
+                write(DATETIME);
+                zigzag(t.toEpochSecond(ZoneOffset.UTC));
+                varint(t.getNano());
+            } else if (value instanceof UUID u) {
+                write(UUID_TAG);
+                long[] halves = {u.getMostSignificantBits(), u.getLeastSignificantBits()};
+                for (long half : halves) {
+                    for (int shift = 56; shift >= 0; shift -= 8) write((int) (half >>> shift));
+                }
+            } else if (value instanceof byte[] b) {
+                write(BYTES);
+                bytes(b);
+            } else if (value instanceof Enum<?> e) {
+                write(STRING);
+                string(e.name());
+            } else {
+                write(STRING);
+                string(value.toString());
+            }
+        }
+    }
+
+    private static final class In {
+
+        private final ByteBuffer buffer;
+
+        In(byte[] data) {
+            this.buffer = ByteBuffer.wrap(data);
+        }
+
+        int read() {
+            return buffer.get() & 0xFF;
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Malformed varint in audit details");
+        }
+
+        int varint() {
+            return (int) varlong();
+        }
+
+        long zigzag() {
+            long raw = varlong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        byte[] bytes() {
+            byte[] value = new byte[varint()];
+            buffer.get(value);
+            return value;
+        }
+
+        String string() {
+            return new String(bytes(), StandardCharsets.UTF_8);
+        }
+
+        JsonNode value() {
+            JsonNodeFactory nodes = JsonNodeFactory.instance;
+            int tag = read();
+            return switch (tag) {
+                case NULL -> nodes.nullNode();
+                case FALSE -> nodes.booleanNode(false);
+                case TRUE -> nodes.booleanNode(true);
+                case LONG -> nodes.numberNode(zigzag());
+                case DOUBLE -> nodes.numberNode(buffer.getDouble());
+                case STRING -> nodes.textNode(string());
+                case DECIMAL -> nodes.numberNode(new BigDecimal(string()));
+                case DATE -> nodes.textNode(LocalDate.ofEpochDay(zigzag()).toString());
+                case INSTANT -> nodes.textNode(Instant.ofEpochSecond(zigzag(), varint()).toString());
+                case DATETIME -> nodes.textNode(LocalDateTime.ofEpochSecond(zigzag(), varint(), ZoneOffset.UTC).toString());
+                case UUID_TAG -> nodes.textNode(new UUID(buffer.getLong(), buffer.getLong()).toString());
+                case BYTES -> nodes.binaryNode(bytes());
+                default -> throw new IllegalArgumentException("Unknown value tag " + tag + " in audit details");
+            };
+        }
+    }
+}
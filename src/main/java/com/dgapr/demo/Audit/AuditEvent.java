@@ -20,12 +20,12 @@ public class AuditEvent extends ApplicationEvent {
     private final String rowId;
     /** The type of operation that occurred (e.g., "CREATE", "UPDATE", "DELETE"). */
     private final String op;
-    /** Additional details about the operation, often a JSON string representing changes. */
-    private final String details;
+    /** Additional details about the operation: a snapshot, the changed fields, or text. */
+    private final AuditDetails details;
     /** The principal (username) who modified the entity. */
     private final String modifiedBy;
 
-    public AuditEvent(Object source, String table, String rowId, String op, String details, String modifiedBy) {
+    public AuditEvent(Object source, String table, String rowId, String op, AuditDetails details, String modifiedBy) {
         super(source);
         this.table = table;
         this.rowId = rowId;
@@ -0,0 +1,101 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Model.AuditField;
+import com.dgapr.demo.Repository.AuditFieldRepository;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-table dictionary of audited field names, backed by {@code audit_field} and cached in memory.
+ *
+ * <p>A field seen for the first time is registered on a connection of its own, in auto-commit mode,
+ * before its id is cached or written into an audit entry, so an id always resolves even if the audited
+ * transaction rolls back. This bypasses Spring's transaction management on purpose: fields are
+ * registered while the audited transaction is committing (see {@link AuditOutboxWriter}), where a
+ * nested transaction cannot be started. Concurrent registrations of the same field resolve to the
+ * row that won the unique key.</p>
+ */
+@Component
+public class AuditFieldDictionary {
+
+    private final AuditFieldRepository repository;
+    private final DataSource dataSource;
+
+    private final Map<String, Map<String, Integer>> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+    public AuditFieldDictionary(AuditFieldRepository repository, DataSource dataSource) {
+        this.repository = repository;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @param table the audited table
+     * @param field a field name
+     * @return the id of the field, registered if it is new
+     */
+    public int idOf(String table, String field) {
+        return ids.computeIfAbsent(table, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(field, f -> cache(register(table, f), f));
+    }
+
+    /**
+     * @param id a field id
+     * @return the field name
+     * @throws IllegalStateException if no field has this id
+     */
+    public String nameOf(int id) {
+        String name = names.get(id);
+        if (name != null) return name;
+        AuditField field = repository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Unknown audit field id " + id));
+        ids.computeIfAbsent(field.getTableName(), t -> new ConcurrentHashMap<>()).putIfAbsent(field.getFieldName(), id);
+        cache(id, field.getFieldName());
+        return field.getFieldName();
+    }
+
+    private int register(String table, String field) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            Integer id = find(connection, table, field);
+            if (id != null) return id;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO audit_field (table_name, field_name) VALUES (?, ?)")) {
+                insert.setString(1, table);
+                insert.setString(2, field);
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                // registered concurrently by another thread or instance: use the winner's id
+                id = find(connection, table, field);
+                if (id != null) return id;
+                throw e;
+            }
+            return find(connection, table, field);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not register audit field " + table + "." + field, e);
+        }
+    }
+
+    private static Integer find(Connection connection, String table, String field) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id FROM audit_field WHERE table_name = ? AND field_name = ?")) {
+            select.setString(1, table);
+            select.setString(2, field);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    private int cache(int id, String field) {
+        names.put(id, field);
+        return id;
+    }
+}
@@ -0,0 +1,106 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Append-only NDJSON files of audit entries, one {@link AuditLogEntry} per line (without audit id),
+ * for shipping to an external log pipeline.
+ *
+ * <p>Files roll daily and when they reach {@code audit.sink.file.max-bytes}:
+ * {@code audit-YYYY-MM-DD.ndjson}, then {@code audit-YYYY-MM-DD.1.ndjson} and so on. Each batch is
+ * rendered into one buffer and appended with a single channel write.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.sink.file.enabled", havingValue = "true")
+public class AuditFileSink implements AuditSink {
+
+    private final AuditDetailsCodec codec;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxBytes;
+
+    private FileChannel channel;
+    private LocalDate day;
+    private int part;
+
+    public AuditFileSink(AuditDetailsCodec codec, ObjectMapper objectMapper,
+                         @Value("${audit.sink.file.dir:audit-sink}") String directory,
+                         @Value("${audit.sink.file.max-bytes:67108864}") long maxBytes) {
+        this.codec = codec;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void write(List<AuditRecord> batch) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(batch.size() * 256);
+        for (AuditRecord record : batch) {
+            objectMapper.writeValue(lines, codec.toEntry(record.toRow()));
+            lines.write('\n');
+        }
+        FileChannel out = channel(lines.size());
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /** The channel of the current file, rolled when the day changes or the next write would exceed the size limit. */
+    private FileChannel channel(int nextWrite) throws IOException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (channel != null && (!today.equals(day) || (channel.size() > 0 && channel.size() + nextWrite > maxBytes))) {
+            close();
+            part = today.equals(day) ? part + 1 : 0;
+        }
+        if (channel == null) {
+            if (!today.equals(day)) part = 0;
+            day = today;
+            Files.createDirectories(directory);
+            Path file;
+            // on restart, continue after the parts already written today
+            while (Files.exists(file = directory.resolve(fileName(day, part))) && Files.size(file) >= maxBytes) {
+                part++;
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            log.debug("Audit file sink writing to {}", file);
+        }
+        return channel;
+    }
+
+    private static String fileName(LocalDate day, int part) {
+        return part == 0 ? "audit-" + day + ".ndjson" : "audit-" + day + "." + part + ".ndjson";
+    }
+}
@@ -0,0 +1,230 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Audit.AuditedTypes.AuditedType;
+import com.dgapr.demo.Model.AuditHistoryHead;
+import com.dgapr.demo.Model.AuditSnapshot;
+import com.dgapr.demo.Repository.AuditHistoryHeadRepository;
+import com.dgapr.demo.Repository.AuditSnapshotRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Starts the history of the rows of {@code audit.history.tables} that {@link AuditHistorySink} does not
+ * track yet: the rows that existed before history was enabled, rows inserted without a per-row audit
+ * entry (the bulk imports) and rows whose history was dropped.
+ *
+ * <p>A baseline is a head and a baseline {@link AuditSnapshot} of the live state, built like the
+ * snapshot of a creation. The rows are read with a shared lock held until the baseline commits, so no
+ * change to them can commit between the read and the head: a change committed before is in the
+ * baseline, one committed after is applied to the head by the sink. A baseline snapshot has outbox id
+ * {@code 0}, so reads apply all the row's entries after it; an entry already in the baseline only sets
+ * values again, in order, and the result is the same.</p>
+ *
+ * <p>On startup every table is read in chunks of {@code audit.history.baseline-batch-size} rows; the
+ * sink baselines the other rows on demand, when it relays a change to one of them.</p>
+ */
+@Slf4j
+@Component
+public class AuditHistoryBaseline {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditedTypes auditedTypes;
+    private final AuditHistoryHeadRepository headRepository;
+    private final AuditSnapshotRepository snapshotRepository;
+    private final AuditDetailsCodec codec;
+    private final PlatformTransactionManager transactionManager;
+    private final Set<String> tables;
+    private final int batchSize;
+
+    /** The audited entities of the history tables, by table; built on first use. */
+    private volatile Map<String, EntityType<?>> entities;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AuditHistoryBaseline(EntityManagerFactory entityManagerFactory, AuditedTypes auditedTypes,
+                                AuditHistoryHeadRepository headRepository,
+                                AuditSnapshotRepository snapshotRepository, AuditDetailsCodec codec,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${audit.history.tables:Certificate,users}") Set<String> tables,
+                                @Value("${audit.history.baseline-batch-size:500}") int batchSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditedTypes = auditedTypes;
+        this.headRepository = headRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.codec = codec;
+        this.transactionManager = transactionManager;
+        this.tables = tables;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes the missing baselines of every history table. A failure leaves the remaining rows
+     * untracked until their next change or the next start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void baseline() {
+        entities().forEach((table, entity) -> {
+            try {
+                int written = baseline(entity, auditedTypes.of(entity.getJavaType()));
+                if (written > 0) log.info("History of {}: baseline written for {} existing rows", table, written);
+            } catch (DataAccessException | IllegalArgumentException e) {
+                log.error("Could not write the history baseline of {}; retried on the next start", table, e);
+            }
+        });
+    }
+
+    /**
+     * Writes the baselines of rows without a head, in the caller's transaction.
+     *
+     * @param table  a history table
+     * @param rowIds the rows, which must have no head
+     * @return the heads written, by row id; rows that no longer exist, or ids that do not fit the table's
+     * id type, get none
+     * @throws IllegalArgumentException if the table is not a history table
+     */
+    public Map<String, AuditHistoryHead> baseline(String table, Collection<String> rowIds) {
+        EntityType<?> entity = entities().get(table);
+        if (entity == null) throw new IllegalArgumentException("No audited entity for history table " + table);
+        AuditedType type = auditedTypes.of(entity.getJavaType());
+        Class<?> idType = entity.getIdType().getJavaType();
+        List<Object> ids = new ArrayList<>(rowIds.size());
+        for (String rowId : rowIds) {
+            try {
+                ids.add(DefaultConversionService.getSharedInstance().convert(rowId, idType));
+            } catch (ConversionException e) {
+                log.warn("Row id {} of {} is not a {}; no baseline", rowId, table, idType.getSimpleName());
+            }
+        }
+        if (ids.isEmpty()) return Map.of();
+        List<?> rows = entityManager.createQuery("SELECT e FROM " + entity.getName() + " e WHERE e."
+                        + type.idProperty() + " IN :ids", entity.getJavaType())
+                .setLockMode(LockModeType.PESSIMISTIC_READ)
+                .setParameter("ids", ids)
+                .getResultList();
+        return write(entity, type, rows, Set.of());
+    }
+
+    private int baseline(EntityType<?> entity, AuditedType type) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int written = 0;
+        Object afterId = null;
+        while (true) {
+            Object after = afterId;
+            Chunk chunk;
+            try {
+                chunk = tx.execute(status -> baselineChunk(entity, type, after));
+            } catch (DataIntegrityViolationException e) {
+                // the sink started the history of a row meanwhile: read the chunk's heads again
+                chunk = tx.execute(status -> baselineChunk(entity, type, after));
+            }
+            written += chunk.written();
+            if (chunk.lastId() == null) return written;
+            afterId = chunk.lastId();
+        }
+    }
+
+    private Chunk baselineChunk(EntityType<?> entity, AuditedType type, Object afterId) {
+        String jpql = "SELECT e FROM " + entity.getName() + " e"
+                + (afterId == null ? "" : " WHERE e." + type.idProperty() + " > :afterId")
+                + " ORDER BY e." + type.idProperty();
+        TypedQuery<?> query = entityManager.createQuery(jpql, entity.getJavaType())
+                .setLockMode(LockModeType.PESSIMISTIC_READ)
+                .setMaxResults(batchSize);
+        if (afterId != null) query.setParameter("afterId", afterId);
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) return new Chunk(null, 0);
+
+        PersistenceUnitUtil util = entityManagerFactory.getPersistenceUnitUtil();
+        Set<String> rowIds = rows.stream().map(row -> util.getIdentifier(row).toString()).collect(Collectors.toSet());
+        Set<String> tracked = headRepository.findByTableNameAndRowIdIn(type.table(), rowIds).stream()
+                .map(AuditHistoryHead::getRowId)
+                .collect(Collectors.toSet());
+        int written = write(entity, type, rows, tracked).size();
+        return new Chunk(util.getIdentifier(rows.get(rows.size() - 1)), written);
+    }
+
+    /** Writes a head and a baseline snapshot for each row not in {@code tracked}. */
+    private Map<String, AuditHistoryHead> write(EntityType<?> entity, AuditedType type, List<?> rows,
+                                                Set<String> tracked) {
+        PersistenceUnitUtil util = entityManagerFactory.getPersistenceUnitUtil();
+        EntityPersister persister = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(entity.getJavaType());
+        Instant now = Instant.now();
+        Map<String, AuditHistoryHead> heads = new LinkedHashMap<>();
+        List<AuditSnapshot> snapshots = new ArrayList<>();
+        for (Object row : rows) {
+            Object id = util.getIdentifier(row);
+            String rowId = id.toString();
+            if (tracked.contains(rowId)) continue;
+            byte[] state = codec.encode(type.table(),
+                    AuditDetails.snapshot(type.snapshot(id, persister.getValues(row))));
+
+            AuditHistoryHead head = new AuditHistoryHead();
+            head.setTableName(type.table());
+            head.setRowId(rowId);
+            head.setStateData(state);
+            head.setLastChange(now);
+            heads.put(rowId, head);
+
+            AuditSnapshot snapshot = new AuditSnapshot();
+            snapshot.setTableName(type.table());
+            snapshot.setRowId(rowId);
+            snapshot.setAsOf(now);
+            snapshot.setLastOutboxId(0L);
+            snapshot.setStateData(state);
+            snapshots.add(snapshot);
+        }
+        headRepository.saveAll(heads.values());
+        snapshotRepository.saveAll(snapshots);
+        return heads;
+    }
+
+    private Map<String, EntityType<?>> entities() {
+        Map<String, EntityType<?>> byTable = entities;
+        if (byTable == null) {
+            byTable = new HashMap<>();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                AuditedType type = auditedTypes.of(entity.getJavaType());
+                if (type != null && tables.contains(type.table())) byTable.put(type.table(), entity);
+            }
+            entities = byTable = Map.copyOf(byTable);
+        }
+        return byTable;
+    }
+
+    /**
+     * @param lastId  the id of the last row read, {@code null} when there were none left
+     * @param written the number of baselines written
+     */
+    private record Chunk(Object lastId, int written) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Model.AuditHistoryHead;
+import com.dgapr.demo.Model.AuditSnapshot;
+import com.dgapr.demo.Repository.AuditHistoryHeadRepository;
+import com.dgapr.demo.Repository.AuditSnapshotRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the history of the rows of {@code audit.history.tables} for point-in-time reads.
+ *
+ * <p>For each row it keeps its latest state in {@link AuditHistoryHead} and writes an
+ * {@link AuditSnapshot} on creation, on hard deletion and after every {@code audit.history.snapshot-every}
+ * changes, so rebuilding the row at any instant takes one snapshot and fewer than that many diffs.
+ * Durable: it runs in the relay transaction, so no change is missed or applied twice. Per batch it
+ * reads the heads of the batch's rows with one query per table.</p>
+ *
+ * <p>A row's history starts from a full state: its creation, or a baseline taken by
+ * {@link AuditHistoryBaseline}, since a diff alone is not the row's state. Rows that existed before are
+ * baselined on startup; a change to a row still without a head (inserted by a bulk import, which audits
+ * one {@code BULK_CREATE} summary instead of a creation per row) baselines the row first. An entry
+ * that cannot be decoded or applied is logged and the row's head dropped, rather than failing the batch
+ * (which would stop {@code audit_log} too); the row gets a new baseline on its next change.</p>
+ */
+@Slf4j
+@Component
+public class AuditHistorySink implements AuditSink {
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() { };
+
+    private final AuditHistoryHeadRepository headRepository;
+    private final AuditSnapshotRepository snapshotRepository;
+    private final AuditHistoryBaseline baseline;
+    private final AuditDetailsCodec codec;
+    private final ObjectMapper objectMapper;
+    private final Set<String> tables;
+    private final int snapshotEvery;
+
+    public AuditHistorySink(AuditHistoryHeadRepository headRepository, AuditSnapshotRepository snapshotRepository,
+                            AuditHistoryBaseline baseline, AuditDetailsCodec codec, ObjectMapper objectMapper,
+                            @Value("${audit.history.tables:Certificate,users}") Set<String> tables,
+                            @Value("${audit.history.snapshot-every:20}") int snapshotEvery) {
+        this.headRepository = headRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.baseline = baseline;
+        this.codec = codec;
+        this.objectMapper = objectMapper;
+        this.tables = tables;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    /**
+     * @return the tables whose history is kept
+     */
+    public Set<String> tables() {
+        return tables;
+    }
+
+    @Override
+    public String name() {
+        return "history";
+    }
+
+    @Override
+    public boolean durable() {
+        return true;
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        Map<String, List<AuditRecord>> byTable = batch.stream()
+                // a bulk import's summary is not a row
+                .filter(record -> tables.contains(record.tableName()) && record.detailsData() != null
+                        && !record.operation().equals("BULK_CREATE"))
+                .collect(Collectors.groupingBy(AuditRecord::tableName, LinkedHashMap::new, Collectors.toList()));
+        byTable.forEach(this::write);
+    }
+
+    private void write(String table, List<AuditRecord> records) {
+        Map<String, AuditHistoryHead> heads = new HashMap<>(headRepository
+                .findByTableNameAndRowIdIn(table, records.stream().map(AuditRecord::rowId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(AuditHistoryHead::getRowId, Function.identity())));
+        baselineUntracked(table, records, heads);
+        Map<String, AuditedState> states = new HashMap<>();
+        List<AuditSnapshot> snapshots = new ArrayList<>();
+        Set<String> failed = new HashSet<>();
+
+        for (AuditRecord record : records) {
+            if (failed.contains(record.rowId())) continue;
+            try {
+                apply(table, record, heads, states, snapshots);
+            } catch (IllegalArgumentException e) {
+                drop(table, record.rowId(), "entry " + record.outboxId(), e, heads, states, failed);
+            }
+        }
+
+        List<AuditHistoryHead> changed = new ArrayList<>();
+        for (Map.Entry<String, AuditedState> entry : new ArrayList<>(states.entrySet())) {
+            AuditHistoryHead head = heads.get(entry.getKey());
+            try {
+                head.setStateData(encode(table, entry.getValue()));
+            } catch (IllegalArgumentException e) {
+                drop(table, entry.getKey(), "the new state", e, heads, states, failed);
+                continue;
+            }
+            head.setDeleted(entry.getValue().deleted());
+            head.setLastChange(entry.getValue().lastChange());
+            changed.add(head);
+        }
+        headRepository.saveAll(changed);
+        // snapshots taken before a failure are still right
+        snapshotRepository.saveAll(snapshots);
+    }
+
+    /** Baselines the rows whose first change in the batch needs a head they do not have. */
+    private void baselineUntracked(String table, List<AuditRecord> records, Map<String, AuditHistoryHead> heads) {
+        Set<String> seen = new HashSet<>();
+        Set<String> untracked = new LinkedHashSet<>();
+        for (AuditRecord record : records) {
+            if (seen.add(record.rowId()) && !heads.containsKey(record.rowId()) && !fullState(record)) {
+                untracked.add(record.rowId());
+            }
+        }
+        try {
+            heads.putAll(baseline.baseline(table, untracked));
+        } catch (IllegalArgumentException e) {
+            log.warn("Could not baseline the history of {} {}; their changes are skipped", table, untracked, e);
+        }
+    }
+
+    /** Stops keeping the history of a row that could not be updated: it gets a new baseline on its next change. */
+    private void drop(String table, String rowId, String what, IllegalArgumentException e,
+                      Map<String, AuditHistoryHead> heads, Map<String, AuditedState> states, Set<String> failed) {
+        log.warn("Could not apply {} to the history of {} {}; its history stops until the next baseline",
+                what, table, rowId, e);
+        failed.add(rowId);
+        states.remove(rowId);
+        AuditHistoryHead head = heads.remove(rowId);
+        if (head != null && head.getId() != null) headRepository.delete(head);
+    }
+
+    private void apply(String table, AuditRecord record, Map<String, AuditHistoryHead> heads,
+                       Map<String, AuditedState> states, List<AuditSnapshot> snapshots) {
+        AuditHistoryHead head = heads.get(record.rowId());
+        boolean fullState = fullState(record);
+        if (head == null && !fullState) {
+            log.debug("No history for {} {}, which no longer exists; {} skipped", table, record.rowId(), record.operation());
+            return;
+        }
+        JsonNode details = codec.decodeTree(record.detailsData());
+        AuditedState state = states.get(record.rowId());
+        if (state == null) {
+            state = head == null
+                    ? AuditedState.empty()
+                    : AuditedState.of(codec.decodeTree(head.getStateData()), head.isDeleted(), head.getLastChange());
+        }
+        if (!state.apply(record.operation(), details, record.timestamp())) return;
+
+        if (head == null) {
+            head = new AuditHistoryHead();
+            head.setTableName(table);
+            head.setRowId(record.rowId());
+            heads.put(record.rowId(), head);
+        }
+        states.put(record.rowId(), state);
+        head.setChangesSinceSnapshot(head.getChangesSinceSnapshot() + 1);
+        if (fullState || head.getChangesSinceSnapshot() >= snapshotEvery) {
+            AuditSnapshot snapshot = new AuditSnapshot();
+            snapshot.setTableName(table);
+            snapshot.setRowId(record.rowId());
+            snapshot.setAsOf(record.timestamp());
+            snapshot.setLastOutboxId(record.outboxId());
+            snapshot.setStateData(encode(table, state));
+            snapshot.setDeleted(state.deleted());
+            snapshots.add(snapshot);
+            head.setChangesSinceSnapshot(0);
+        }
+    }
+
+    private static boolean fullState(AuditRecord record) {
+        return record.operation().equals("CREATE") || record.operation().equals("HARD_DELETE");
+    }
+
+    private byte[] encode(String table, AuditedState state) {
+        return codec.encode(table, AuditDetails.snapshot(objectMapper.convertValue(state.values(), MAP)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Repository.AuditOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves committed entries from {@code audit_outbox} to the {@link AuditSink}s.
+ *
+ * <p>Each batch is moved in one transaction: the oldest entries are locked, written to the durable
+ * sinks ({@code audit_log}, with a single {@code INSERT ... SELECT}) and deleted by id. Ids are taken
+ * from the locked rows rather than as a range, since a transaction still in flight may hold a lower
+ * identity value than a committed one. If a batch fails it is rolled back and retried on the next run;
+ * entries are never lost, and the audited transactions are not affected. Once committed, the batch is
+ * handed to the asynchronous sinks.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditOutboxRelay {
+
+    private final AuditOutboxRepository outboxRepository;
+    private final AuditSinkDispatcher sinks;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${audit.outbox.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Drains the outbox, one batch per transaction, until a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${audit.outbox.relay-ms:1000}")
+    public void relay() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            List<AuditRecord> moved;
+            do {
+                moved = tx.execute(status -> moveBatch());
+                sinks.dispatch(moved);
+            } while (moved.size() == batchSize);
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("Audit outbox relay failed; pending entries are retried on the next run", e);
+        }
+    }
+
+    private List<AuditRecord> moveBatch() {
+        List<AuditRecord> batch = outboxRepository.findOldest(PageRequest.of(0, batchSize)).stream()
+                .map(AuditRecord::of)
+                .toList();
+        if (batch.isEmpty()) return batch;
+        sinks.writeDurable(batch);
+        outboxRepository.deleteByIds(batch.stream().map(AuditRecord::outboxId).toList());
+        log.debug("Moved {} audit entries from the outbox", batch.size());
+        return batch;
+    }
+}
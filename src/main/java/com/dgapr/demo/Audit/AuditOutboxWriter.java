@@ -0,0 +1,166 @@
+package com.dgapr.demo.Audit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes audit entries to {@code audit_outbox} in the transaction of the change they describe.
+ *
+ * <p>Entries are buffered per Hibernate session while the transaction runs, then inserted in one JDBC
+ * batch just before the transaction commits, after the final flush (a Hibernate before-completion
+ * process, the same hook Envers uses). The audited write therefore costs one batched insert on the
+ * same connection, and a rolled-back transaction leaves no audit entry: its buffer is simply dropped.
+ * {@link AuditOutboxRelay} moves the entries to {@code audit_log} in the background.</p>
+ *
+ * <p>Changes to the same row within one transaction are coalesced into one entry, whether they come
+ * from several flushes or repeated saves: successive diffs merge (first old value, last new value per
+ * field, fields set back to their old value dropped) and a diff following the row's creation is folded
+ * into the creation snapshot. A deletion is kept as an entry of its own.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditOutboxWriter {
+
+    private static final String CREATE = "CREATE";
+    private static final String SOFT_DELETE = "DELETE";
+
+    private static final String INSERT = "INSERT INTO audit_outbox " +
+            "(table_name, row_id, operation, modified_by, created_at, details_data) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final AuditDetailsCodec codec;
+
+    private final Map<SharedSessionContractImplementor, Buffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Adds an entry to the outbox batch of the session's current transaction.
+     * Nothing is recorded while {@link AuditContext} has auditing disabled for the thread.
+     *
+     * @param session the session flushing the change
+     * @param table   the audited table
+     * @param rowId   the id of the changed row
+     * @param op      the operation
+     * @param details the details of the change
+     */
+    public void add(EventSource session, String table, String rowId, String op, AuditDetails details) {
+        if (AuditContext.isAuditDisabled()) {
+            log.debug("Audit entry skipped for table={}, rowId={}, op={}", table, rowId, op);
+            return;
+        }
+        Buffer buffer = buffers.computeIfAbsent(session, s -> {
+            Buffer created = new Buffer();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) created);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) created);
+            return created;
+        });
+        buffer.add(new Entry(table, rowId, op, details, buffer.modifiedBy, Instant.now()));
+    }
+
+    /**
+     * @return one entry describing both changes of the row, {@code null} if they cancel out
+     */
+    private static Entry merge(Entry earlier, Entry later) {
+        Map<String, Object> after = new LinkedHashMap<>(earlier.details().after());
+        after.putAll(later.details().after());
+        if (earlier.details().kind() == AuditDetails.Kind.SNAPSHOT) {
+            return later.withDetails(earlier.op(), AuditDetails.snapshot(after));
+        }
+        Map<String, Object> before = new LinkedHashMap<>(later.details().before());
+        before.putAll(earlier.details().before());
+        after.keySet().removeIf(field -> Objects.equals(before.get(field), after.get(field)));
+        if (after.isEmpty()) return null;
+        before.keySet().retainAll(after.keySet());
+        // a soft delete earlier in the transaction stays the operation of the entry
+        String op = SOFT_DELETE.equals(earlier.op()) ? earlier.op() : later.op();
+        return later.withDetails(op, AuditDetails.diff(before, after));
+    }
+
+    /** Only diffs are coalesced, into an earlier diff or into the snapshot of the row's creation. */
+    private static boolean mergeable(Entry earlier, Entry later) {
+        return later.details().kind() == AuditDetails.Kind.DIFF
+                && (earlier.details().kind() == AuditDetails.Kind.DIFF || CREATE.equals(earlier.op()));
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return (auth != null && auth.isAuthenticated())
+                ? auth.getName()
+                : "SYSTEM";
+    }
+
+    private record Entry(String table, String rowId, String op, AuditDetails details, String modifiedBy, Instant at) {
+
+        Entry withDetails(String newOp, AuditDetails newDetails) {
+            return new Entry(table, rowId, newOp, newDetails, modifiedBy, at);
+        }
+    }
+
+    private record RowKey(String table, String rowId) { }
+
+    /** The entries of one transaction; a session runs one transaction at a time. */
+    private final class Buffer implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        /** The principal is resolved once per transaction rather than per entry. */
+        private final String modifiedBy = currentUser();
+        private final List<Entry> entries = new ArrayList<>();
+        /** Position in {@link #entries} of the latest entry of each row; a coalesced-away entry leaves a null. */
+        private final Map<RowKey, Integer> latest = new HashMap<>();
+
+        void add(Entry entry) {
+            RowKey key = new RowKey(entry.table(), entry.rowId());
+            Integer index = latest.get(key);
+            Entry earlier = index == null ? null : entries.get(index);
+            if (earlier != null && mergeable(earlier, entry)) {
+                entries.set(index, merge(earlier, entry));
+            } else {
+                latest.put(key, entries.size());
+                entries.add(entry);
+            }
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (entries.isEmpty()) return;
+            session.doWork(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    for (Entry entry : entries) {
+                        if (entry == null) continue;
+                        insert.setString(1, entry.table());
+                        insert.setString(2, entry.rowId());
+                        insert.setString(3, entry.op());
+                        insert.setString(4, entry.modifiedBy());
+                        insert.setObject(5, OffsetDateTime.ofInstant(entry.at(), ZoneOffset.UTC));
+                        insert.setBytes(6, codec.encode(entry.table(), entry.details()));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            buffers.remove(session, this);
+        }
+    }
+}
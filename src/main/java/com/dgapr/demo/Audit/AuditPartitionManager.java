@@ -0,0 +1,270 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
+import com.dgapr.demo.Repository.AuditLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@code audit_log} partitioned by month and enforces its retention.
+ *
+ * <p>
+ * Main responsibilities:
+ * <ul>
+ *   <li>At startup, convert {@code audit_log} to a table partitioned by month on {@code timestamp}
+ *       (SQL Server partition function and scheme), with a clustered key on {@code (timestamp, audit_id)}
+ *       and every other index aligned on the same scheme</li>
+ *   <li>Keep empty partitions ready for the next {@code audit.partitioning.months-ahead} months</li>
+ *   <li>Move the months older than {@code audit.retention.months} to {@link AuditArchive} files, then
+ *       drop them from the table: a partition truncate and merge, instead of a large logged DELETE</li>
+ * </ul>
+ * </p>
+ *
+ * <p>On a database other than SQL Server (tests run on H2) partitioning is skipped and expired
+ * months are archived and removed with a range DELETE.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditPartitionManager {
+
+    private static final String TABLE = "audit_log";
+    private static final String FUNCTION = "pf_audit_log_month";
+    private static final String SCHEME = "ps_audit_log_month";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditLogRepository auditLogRepository;
+    private final AuditArchive auditArchive;
+    private final AuditDetailsCodec auditDetailsCodec;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${audit.partitioning.enabled:true}")
+    private boolean partitioningEnabled;
+
+    @Value("${audit.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${audit.retention.months:12}")
+    private int retentionMonths;
+
+    /**
+     * Partitions {@code audit_log} if it is not yet, realigns indexes created since (Hibernate creates
+     * new ones on the default filegroup) and adds the upcoming monthly partitions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preparePartitions() {
+        if (!partitioningEnabled || !isSqlServer()) return;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!isPartitioned()) partition();
+                alignIndexes();
+            });
+            addUpcomingPartitions();
+        } catch (DataAccessException e) {
+            log.error("Could not partition {}; it stays unpartitioned until the next start", TABLE, e);
+        }
+    }
+
+    /**
+     * Monthly maintenance: adds the upcoming partitions, then archives and removes the expired months.
+     */
+    @Scheduled(cron = "${audit.retention.cron:0 30 2 1 * *}")
+    public void maintain() {
+        boolean partitioned = partitioningEnabled && isSqlServer() && isPartitioned();
+        if (partitioned) addUpcomingPartitions();
+        if (retentionMonths <= 0) return;
+
+        YearMonth cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+        Instant oldest = auditLogRepository.findOldestTimestamp();
+        if (oldest == null) return;
+        for (YearMonth month = YearMonth.from(oldest.atZone(ZoneOffset.UTC)); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            if (!archive(month, partitioned)) return;
+        }
+    }
+
+    /**
+     * Archives one month and removes it from the table.
+     *
+     * @return {@code false} if the month changed while it was archived; it is left for the next run
+     */
+    private boolean archive(YearMonth month, boolean partitioned) {
+        Instant from = start(month);
+        Instant to = start(month.plusMonths(1));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        long rows = Objects.requireNonNull(readOnly.execute(status -> auditLogRepository.countByTimestampRange(from, to)));
+        long written = rows == 0 ? 0 : Objects.requireNonNull(readOnly.execute(status -> {
+            try (Stream<AuditLogRow> rowStream = auditLogRepository.streamByTimestampRange(from, to)) {
+                // archives hold decoded JSON details, readable without the field dictionary
+                return auditArchive.write(month, rowStream.map(auditDetailsCodec::toEntry));
+            }
+        }));
+
+        long archived = written;
+        return Objects.requireNonNull(tx.execute(status -> {
+            if (auditLogRepository.countByTimestampRange(from, to) != archived) {
+                log.warn("Audit entries of {} changed while being archived; retrying on the next run", month);
+                return false;
+            }
+            if (partitioned && isOwnPartition(month)) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + TABLE + " WITH (PARTITIONS ("
+                        + partitionNumber(month) + "))");
+                // the partition below is already empty (older months go first): metadata-only merge
+                jdbcTemplate.execute("ALTER PARTITION FUNCTION " + FUNCTION + "() MERGE RANGE (" + boundary(month) + ")");
+            } else {
+                auditLogRepository.deleteByTimestampRange(from, to);
+            }
+            if (archived > 0) log.info("Archived {} audit entries of {}", archived, month);
+            return true;
+        }));
+    }
+
+    private void partition() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        Instant oldest = auditLogRepository.findOldestTimestamp();
+        YearMonth first = oldest == null ? current : YearMonth.from(oldest.atZone(ZoneOffset.UTC));
+        List<String> boundaries = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            boundaries.add(boundary(month));
+        }
+
+        if (!exists("SELECT COUNT(*) FROM sys.partition_functions WHERE name = ?", FUNCTION)) {
+            jdbcTemplate.execute("CREATE PARTITION FUNCTION " + FUNCTION + " (" + timestampType()
+                    + ") AS RANGE RIGHT FOR VALUES (" + String.join(", ", boundaries) + ")");
+        }
+        if (!exists("SELECT COUNT(*) FROM sys.partition_schemes WHERE name = ?", SCHEME)) {
+            jdbcTemplate.execute("CREATE PARTITION SCHEME " + SCHEME + " AS PARTITION " + FUNCTION + " ALL TO ([PRIMARY])");
+        }
+
+        // the clustered key must contain the partitioning column; (timestamp, audit_id) also serves
+        // the keyset ordering of the audit query API
+        String primaryKey = jdbcTemplate.queryForObject(
+                "SELECT name FROM sys.key_constraints WHERE parent_object_id = OBJECT_ID(?) AND type = 'PK'",
+                String.class, TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP CONSTRAINT [" + primaryKey + "]");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT pk_audit_log PRIMARY KEY CLUSTERED ([timestamp], audit_id) ON "
+                + SCHEME + "([timestamp])");
+        log.info("{} partitioned by month from {} ({} boundaries)", TABLE, first, boundaries.size());
+    }
+
+    /** Rebuilds the non-clustered indexes that are not on the partition scheme, so partitions can be truncated. */
+    private void alignIndexes() {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                SELECT i.name AS index_name, c.name AS column_name
+                FROM sys.indexes i
+                JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id
+                JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id
+                WHERE i.object_id = OBJECT_ID(?) AND i.type = 2 AND i.is_unique = 0
+                  AND ic.key_ordinal > 0
+                  AND i.data_space_id NOT IN (SELECT data_space_id FROM sys.partition_schemes WHERE name = ?)
+                ORDER BY i.name, ic.key_ordinal
+                """, (RowCallbackHandler) rs -> indexes
+                .computeIfAbsent(rs.getString("index_name"), name -> new ArrayList<>())
+                .add(rs.getString("column_name")), TABLE, SCHEME);
+        indexes.forEach((name, columns) -> jdbcTemplate.execute("CREATE INDEX [" + name + "] ON " + TABLE + " ("
+                + columns.stream().map(c -> "[" + c + "]").collect(Collectors.joining(", "))
+                + ") WITH (DROP_EXISTING = ON) ON " + SCHEME + "([timestamp])"));
+    }
+
+    /** Splits the last partition so that each of the coming months has its own, while it is still empty. */
+    private void addUpcomingPartitions() {
+        try {
+            NavigableSet<YearMonth> existing = boundaries();
+            YearMonth last = existing.isEmpty() ? null : existing.last();
+            YearMonth target = YearMonth.now(ZoneOffset.UTC).plusMonths(monthsAhead);
+            for (YearMonth month = last == null ? YearMonth.now(ZoneOffset.UTC) : last.plusMonths(1);
+                 !month.isAfter(target); month = month.plusMonths(1)) {
+                jdbcTemplate.execute("ALTER PARTITION SCHEME " + SCHEME + " NEXT USED [PRIMARY]");
+                jdbcTemplate.execute("ALTER PARTITION FUNCTION " + FUNCTION + "() SPLIT RANGE (" + boundary(month) + ")");
+            }
+        } catch (DataAccessException e) {
+            log.error("Could not add the upcoming {} partitions", TABLE, e);
+        }
+    }
+
+    /** {@code true} if both bounds of the month are partition boundaries, i.e. the partition holds that month only. */
+    private boolean isOwnPartition(YearMonth month) {
+        Set<YearMonth> boundaries = boundaries();
+        return boundaries.contains(month) && boundaries.contains(month.plusMonths(1));
+    }
+
+    private NavigableSet<YearMonth> boundaries() {
+        return jdbcTemplate.queryForList("""
+                        SELECT CONVERT(char(7), CAST(v.value AS datetime2), 126)
+                        FROM sys.partition_range_values v
+                        JOIN sys.partition_functions f ON f.function_id = v.function_id
+                        WHERE f.name = ?
+                        """, String.class, FUNCTION)
+                .stream().map(YearMonth::parse).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private int partitionNumber(YearMonth month) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT $PARTITION." + FUNCTION + "(" + boundary(month) + ")", Integer.class));
+    }
+
+    private boolean isPartitioned() {
+        return exists("""
+                SELECT COUNT(*) FROM sys.indexes i
+                JOIN sys.partition_schemes s ON s.data_space_id = i.data_space_id
+                WHERE i.object_id = OBJECT_ID(?) AND i.index_id IN (0, 1)
+                """, TABLE);
+    }
+
+    private boolean isSqlServer() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        return product != null && product.startsWith("Microsoft SQL Server");
+    }
+
+    /** The SQL type of the timestamp column (Hibernate maps {@link Instant} to {@code datetimeoffset}). */
+    private String timestampType() {
+        return jdbcTemplate.queryForObject(
+                "SELECT TYPE_NAME(user_type_id) + '(' + CAST(scale AS varchar(2)) + ')' FROM sys.columns " +
+                        "WHERE object_id = OBJECT_ID(?) AND name = 'timestamp'", String.class, TABLE);
+    }
+
+    private boolean exists(String countQuery, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(countQuery, Integer.class, args);
+        return count != null && count > 0;
+    }
+
+    /**
+     * The literal of the first instant of a month, as a partition boundary: ISO 8601 without offset,
+     * read as UTC by {@code datetimeoffset} and independent of the session's date format.
+     */
+    private static String boundary(YearMonth month) {
+        return "'" + month.atDay(1) + "T00:00:00'";
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,33 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
+import com.dgapr.demo.Model.AuditOutbox;
+
+import java.time.Instant;
+
+/**
+ * A committed audit entry as handed to the {@link AuditSink}s by {@link AuditOutboxRelay}.
+ *
+ * @param outboxId    the id of the entry in {@code audit_outbox}, increasing in commit order within a relay batch
+ * @param tableName   the audited table
+ * @param rowId       the id of the audited row
+ * @param operation   the operation
+ * @param modifiedBy  the user who made the change, or SYSTEM
+ * @param timestamp   when the change was made
+ * @param detailsData the details, encoded by {@link AuditDetailsCodec}
+ */
+public record AuditRecord(long outboxId, String tableName, String rowId, String operation,
+                          String modifiedBy, Instant timestamp, byte[] detailsData) {
+
+    public static AuditRecord of(AuditOutbox entry) {
+        return new AuditRecord(entry.getId(), entry.getTableName(), entry.getRowId(), entry.getOperation(),
+                entry.getModifiedBy(), entry.getCreatedAt(), entry.getDetailsData());
+    }
+
+    /**
+     * @return the record in the shape of an {@code audit_log} row, without an audit id
+     */
+    public AuditLogRow toRow() {
+        return new AuditLogRow(null, tableName, rowId, operation, modifiedBy, timestamp, null, detailsData);
+    }
+}
@@ -0,0 +1,52 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recent audit entries, in a fixed-size in-memory ring, for the recent activity view.
+ * Entries are kept encoded and only decoded when read; the oldest are overwritten once the ring is full.
+ * The ring is per instance and empty after a restart.
+ */
+@Component
+public class AuditRingSink implements AuditSink {
+
+    private final AuditDetailsCodec codec;
+    private final AuditRecord[] ring;
+    private long written;
+
+    public AuditRingSink(AuditDetailsCodec codec, @Value("${audit.sink.recent.capacity:1000}") int capacity) {
+        this.codec = codec;
+        this.ring = new AuditRecord[capacity];
+    }
+
+    @Override
+    public String name() {
+        return "recent";
+    }
+
+    @Override
+    public synchronized void write(List<AuditRecord> batch) {
+        for (AuditRecord record : batch) {
+            ring[(int) (written++ % ring.length)] = record;
+        }
+    }
+
+    /**
+     * @param limit the maximum number of entries
+     * @return the most recent entries, newest first, without audit id
+     */
+    public List<AuditLogEntry> recent(int limit) {
+        List<AuditRecord> records = new ArrayList<>(Math.min(limit, ring.length));
+        synchronized (this) {
+            for (long i = written - 1; i >= 0 && i >= written - ring.length && records.size() < limit; i--) {
+                records.add(ring[(int) (i % ring.length)]);
+            }
+        }
+        return records.stream().map(record -> codec.toEntry(record.toRow())).toList();
+    }
+}
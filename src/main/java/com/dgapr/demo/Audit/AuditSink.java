@@ -0,0 +1,45 @@
+package com.dgapr.demo.Audit;
+
+import java.util.List;
+
+/**
+ * A destination of committed audit entries. Every {@code AuditSink} bean receives the batches moved
+ * out of {@code audit_outbox} by {@link AuditOutboxRelay}, in order.
+ *
+ * <p>A {@link #durable()} sink is written inside the relay transaction, before the entries leave the
+ * outbox: if it fails, the batch is rolled back and retried, so it sees every entry at least once.
+ * Other sinks are fed asynchronously after the commit, each from its own bounded queue, so a slow or
+ * failing sink delays neither the relay nor the other sinks; a batch that does not fit in a full queue
+ * is dropped for that sink.</p>
+ */
+public interface AuditSink {
+
+    /**
+     * @return a short name, used in logs and thread names
+     */
+    String name();
+
+    /**
+     * @return whether the sink is written in the relay transaction
+     */
+    default boolean durable() {
+        return false;
+    }
+
+    /**
+     * Writes a batch of entries. Calls for a given sink never overlap.
+     *
+     * @param batch the entries, oldest first
+     * @throws Exception if the batch could not be written
+     */
+    void write(List<AuditRecord> batch) throws Exception;
+
+    /**
+     * Called instead of {@link #write} when a batch is dropped for this asynchronous sink because its
+     * queue is full, on the relay thread; must be quick and must not throw.
+     *
+     * @param batch the entries that will not be written, oldest first
+     */
+    default void dropped(List<AuditRecord> batch) {
+    }
+}
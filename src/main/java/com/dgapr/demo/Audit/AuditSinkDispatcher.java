@@ -0,0 +1,100 @@
+package com.dgapr.demo.Audit;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans the batches moved by {@link AuditOutboxRelay} out to the {@link AuditSink}s: durable sinks
+ * synchronously, in the relay transaction; the others through one single-threaded executor each,
+ * with a queue of {@code audit.sink.queue-capacity} batches. A batch that does not fit is reported to
+ * the sink with {@link AuditSink#dropped}.
+ */
+@Slf4j
+@Component
+public class AuditSinkDispatcher {
+
+    private final List<AuditSink> durableSinks;
+    private final Map<AuditSink, ExecutorService> asyncSinks = new LinkedHashMap<>();
+
+    public AuditSinkDispatcher(List<AuditSink> sinks, @Value("${audit.sink.queue-capacity:100}") int queueCapacity) {
+        this.durableSinks = sinks.stream().filter(AuditSink::durable).toList();
+        for (AuditSink sink : sinks) {
+            if (sink.durable()) continue;
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "audit-sink-" + sink.name());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            asyncSinks.put(sink, executor);
+        }
+        log.info("Audit sinks: durable {}, asynchronous {}",
+                durableSinks.stream().map(AuditSink::name).toList(),
+                asyncSinks.keySet().stream().map(AuditSink::name).toList());
+    }
+
+    /**
+     * Writes a batch to the durable sinks. Called in the relay transaction; a failure propagates and
+     * rolls the batch back.
+     *
+     * @param batch the entries, oldest first
+     */
+    public void writeDurable(List<AuditRecord> batch) {
+        for (AuditSink sink : durableSinks) {
+            try {
+                sink.write(batch);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Audit sink '" + sink.name() + "' failed", e);
+            }
+        }
+    }
+
+    /**
+     * Queues a committed batch for the asynchronous sinks and returns immediately.
+     *
+     * @param batch the entries, oldest first
+     */
+    public void dispatch(List<AuditRecord> batch) {
+        if (batch.isEmpty()) return;
+        asyncSinks.forEach((sink, executor) -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        sink.write(batch);
+                    } catch (Exception e) {
+                        log.error("Audit sink '{}' failed to write {} entries", sink.name(), batch.size(), e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Audit sink '{}' is falling behind; a batch of {} entries was dropped", sink.name(), batch.size());
+                sink.dropped(batch);
+            }
+        });
+    }
+
+    /** Lets queued batches drain for a few seconds on shutdown. */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService executor : asyncSinks.values()) {
+            executor.shutdown();
+        }
+        for (ExecutorService executor : asyncSinks.values()) {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
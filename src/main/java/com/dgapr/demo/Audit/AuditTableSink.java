@@ -0,0 +1,33 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Repository.AuditOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The {@code audit_log} table, system of record of the audit query API. Durable: the batch is copied
+ * from the outbox with one set-based {@code INSERT ... SELECT} in the relay transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditTableSink implements AuditSink {
+
+    private final AuditOutboxRepository outboxRepository;
+
+    @Override
+    public String name() {
+        return "table";
+    }
+
+    @Override
+    public boolean durable() {
+        return true;
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        outboxRepository.copyToAuditLog(batch.stream().map(AuditRecord::outboxId).toList());
+    }
+}
@@ -0,0 +1,25 @@
+package com.dgapr.demo.Audit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts the audit of an entity (one declaring {@link AuditListener} in {@code @EntityListeners})
+ * to the listed properties. Without it, every property except the version and collections is audited.
+ *
+ * <p>Use it to leave out derived or bulky columns: a change to an unlisted property alone produces no
+ * audit entry.</p>
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditedFields {
+
+    /**
+     * @return the names of the audited properties, as in the entity class
+     */
+    String[] value();
+}
@@ -0,0 +1,86 @@
+package com.dgapr.demo.Audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The state of an audited row rebuilt from its audit entries: its audited field values, as in the
+ * decoded snapshot details, and whether it was hard-deleted.
+ */
+public final class AuditedState {
+
+    private ObjectNode values;
+    private boolean deleted;
+    private Instant lastChange;
+
+    private AuditedState(ObjectNode values, boolean deleted, Instant lastChange) {
+        this.values = values;
+        this.deleted = deleted;
+        this.lastChange = lastChange;
+    }
+
+    /**
+     * @return the state before the row's creation
+     */
+    public static AuditedState empty() {
+        return new AuditedState(JsonNodeFactory.instance.objectNode(), false, null);
+    }
+
+    /**
+     * @param values     decoded snapshot details
+     * @param deleted    whether the row was hard-deleted
+     * @param lastChange timestamp of the last change included
+     * @return the state
+     */
+    public static AuditedState of(JsonNode values, boolean deleted, Instant lastChange) {
+        return new AuditedState(values.isObject() ? ((ObjectNode) values).deepCopy() : JsonNodeFactory.instance.objectNode(),
+                deleted, lastChange);
+    }
+
+    /**
+     * Applies one audit entry of the row.
+     *
+     * @param operation the operation of the entry
+     * @param details   its decoded details: a snapshot for CREATE and HARD_DELETE, a diff otherwise
+     * @param at        its timestamp
+     * @return {@code false} if the entry does not describe a row change (e.g. a text note) and was ignored
+     */
+    public boolean apply(String operation, JsonNode details, Instant at) {
+        if (!details.isObject()) return false;
+        switch (operation) {
+            case "CREATE", "HARD_DELETE" -> {
+                values = ((ObjectNode) details).deepCopy();
+                deleted = operation.equals("HARD_DELETE");
+            }
+            case "UPDATE", "DELETE" -> {
+                for (Iterator<Map.Entry<String, JsonNode>> it = details.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> change = it.next();
+                    values.set(change.getKey(), change.getValue().get("new"));
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        lastChange = at;
+        return true;
+    }
+
+    /** The field values, e.g. {@code isDeleted} set for a soft-deleted row. */
+    public ObjectNode values() {
+        return values;
+    }
+
+    public boolean deleted() {
+        return deleted;
+    }
+
+    public Instant lastChange() {
+        return lastChange;
+    }
+}
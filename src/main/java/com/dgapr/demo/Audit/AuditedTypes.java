@@ -0,0 +1,132 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Model.Identifiable;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Per-class audit metadata, built on first use from the annotations and the Hibernate persister, and
+ * held in a {@link ClassValue}, so the listener path does no annotation scanning or map lookups.
+ *
+ * <p>An entity class is audited when it declares {@link AuditListener} in {@code @EntityListeners}.
+ * Its audited properties are all of them except the version and collections or, when it declares
+ * {@link AuditedFields}, the listed ones.</p>
+ */
+@Component
+public class AuditedTypes {
+
+    /** Properties never reported: the version changes on every update. */
+    private static final Set<String> IGNORED_PROPERTIES = Set.of("version");
+
+    /** Properties reported as changed without their values. */
+    private static final Set<String> PROTECTED_PROPERTIES = Set.of("password");
+
+    private static final String PROTECTED_VALUE = "[PROTECTED]";
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final ClassValue<Optional<AuditedType>> types = new ClassValue<>() {
+        @Override
+        protected Optional<AuditedType> computeValue(Class<?> type) {
+            return describe(type);
+        }
+    };
+
+    public AuditedTypes(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    /**
+     * @param entityClass the class of a mapped entity
+     * @return its audit metadata, {@code null} if it is not audited
+     */
+    public AuditedType of(Class<?> entityClass) {
+        return types.get(entityClass).orElse(null);
+    }
+
+    private Optional<AuditedType> describe(Class<?> entityClass) {
+        EntityListeners listeners = entityClass.getAnnotation(EntityListeners.class);
+        if (listeners == null || !Arrays.asList(listeners.value()).contains(AuditListener.class)) {
+            return Optional.empty();
+        }
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        AuditedFields optIn = entityClass.getAnnotation(AuditedFields.class);
+        Set<String> selected = optIn == null ? null : Set.of(optIn.value());
+        if (selected != null && !Arrays.asList(names).containsAll(selected)) {
+            throw new IllegalStateException("@AuditedFields of " + entityClass.getName()
+                    + " names properties that do not exist: " + selected);
+        }
+
+        boolean[] audited = new boolean[names.length];
+        @SuppressWarnings("unchecked")
+        UnaryOperator<Object>[] renderers = new UnaryOperator[names.length];
+        for (int i = 0; i < names.length; i++) {
+            audited[i] = !IGNORED_PROPERTIES.contains(names[i])
+                    && !types[i].isCollectionType()
+                    && (selected == null || selected.contains(names[i]));
+            renderers[i] = renderer(names[i], types[i]);
+        }
+        int[] properties = IntStream.range(0, names.length).filter(i -> audited[i]).toArray();
+        return Optional.of(new AuditedType(entityClass.getAnnotation(Table.class).name(),
+                persister.getIdentifierPropertyName(), names, audited, properties, renderers));
+    }
+
+    private static UnaryOperator<Object> renderer(String name, Type type) {
+        if (PROTECTED_PROPERTIES.contains(name)) return value -> PROTECTED_VALUE;
+        // associations are reported by their id rather than serialised (they may be uninitialised proxies)
+        if (type.isEntityType()) return value -> (value instanceof Identifiable) ? ((Identifiable<?>) value).idAsString() : value;
+        return UnaryOperator.identity();
+    }
+
+    /**
+     * What is audited of an entity class and how its values are reported.
+     *
+     * @param table      the audited table name
+     * @param idProperty the name of the identifier property
+     * @param names      the property names, indexed like the persister's state arrays
+     * @param audited    per property index, whether the property is audited
+     * @param properties the indexes of the audited properties, in property order
+     * @param renderers  per property index, the conversion of a state value to the audited value
+     */
+    public record AuditedType(String table, String idProperty, String[] names, boolean[] audited, int[] properties,
+                              UnaryOperator<Object>[] renderers) {
+
+        /**
+         * @param i     a property index
+         * @param state the value of the property in a state array
+         * @return the value to audit
+         */
+        public Object render(int i, Object state) {
+            return renderers[i].apply(state);
+        }
+
+        /**
+         * @param id    the identifier of the row
+         * @param state the row's state array
+         * @return the snapshot details of the row: its id and audited values
+         */
+        public Map<String, Object> snapshot(Object id, Object[] state) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put(idProperty, id);
+            for (int i : properties) {
+                values.put(names[i], render(i, state[i]));
+            }
+            return values;
+        }
+    }
+}
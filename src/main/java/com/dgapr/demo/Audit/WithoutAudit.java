@@ -0,0 +1,18 @@
+package com.dgapr.demo.Audit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Suppresses auditing while the annotated method runs (on a type: every public method), as
+ * {@link AuditContext#suppress()} would. Applies to calls through the Spring proxy of the bean, like
+ * {@code @Transactional}.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WithoutAudit {
+}
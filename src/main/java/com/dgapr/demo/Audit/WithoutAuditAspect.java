@@ -0,0 +1,25 @@
+package com.dgapr.demo.Audit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link WithoutAudit}. Ordered first, so the suppression also covers the commit of a
+ * transaction started on the same method, when audit entries are written.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WithoutAuditAspect {
+
+    @Around("@annotation(com.dgapr.demo.Audit.WithoutAudit) || @within(com.dgapr.demo.Audit.WithoutAudit)")
+    public Object suppressAudit(ProceedingJoinPoint joinPoint) throws Throwable {
+        try (AuditContext.Suppression ignored = AuditContext.suppress()) {
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -3,9 +3,15 @@
 import java.util.Arrays;
 import java.util.List;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import static org.springframework.security.config.Customizer.withDefaults;
@@ -19,13 +25,17 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.dgapr.demo.Model.User.Role;
 import com.dgapr.demo.Security.JwtAuthenticationFilter;
+import com.dgapr.demo.Security.TimedFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
@@ -33,16 +43,33 @@ import jakarta.servlet.http.HttpServletResponse;
  *
  * <p>Sets up stateless JWT authentication, role-based access rules,
  * CORS, and exception handling.</p>
+ *
+ * <p>Actuator probes (the {@code liveness} and {@code readiness} health groups, {@code info}) are
+ * served by a separate, minimal filter chain that never parses a JWT or loads a user. The full
+ * {@code health} endpoint, with its component details, and {@code metrics} stay behind the main chain.</p>
  */
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtFilter;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public SecurityConfig(JwtAuthenticationFilter jwtFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtFilter, MeterRegistry meterRegistry) {
         this.jwtFilter = jwtFilter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Stops Spring Boot from also registering the JWT filter as a plain servlet filter,
+     * which would run it for every request, probes included, outside of any security chain.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtFilter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     /**
@@ -73,16 +100,43 @@ public class SecurityConfig {
         };
     }
 
+    /**
+     * Lightweight chain for the liveness, readiness and info probes:
+     *  – matched before the main chain
+     *  – no CORS, CSRF, request cache, security context or JWT filter
+     *  – every matched request is permitted; the probe groups report their status alone, since
+     *    no caller is ever authorised on this chain
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain probeFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(new OrRequestMatcher(
+                        new AntPathRequestMatcher("/actuator/health/liveness"),
+                        new AntPathRequestMatcher("/actuator/health/readiness"),
+                        EndpointRequest.to("info")))
+                .csrf(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .securityContext(AbstractHttpConfigurer::disable)
+                .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(a -> a.anyRequest().permitAll());
+
+        return http.build();
+    }
+
     /**
      * Defines the security filter chain:
      *  – CORS enabled for localhost:5173
      *  – CSRF disabled
      *  – Stateless session (no cookies)
-     *  – Public paths under /api/auth/**
-     *  – Role-based locking of /api/users/** and /api/admin/**
-     *  – JWT filter inserted before the username/password filter
+     *  – Public login and JWK Set endpoints under /api/auth/**
+     *  – Role-based locking of /api/users/**, /api/admin/** and the metrics endpoint; the health
+     *    endpoint requires authentication and shows its details to admins
+     *  – JWT filter inserted before the username/password filter, timed in the
+     *    {@code security.filter} metric
      */
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .cors(withDefaults())
@@ -90,13 +144,20 @@ public class SecurityConfig {
                 .exceptionHandling(e -> e.authenticationEntryPoint(unauthorizedHandler()))
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(a -> a
+                        // the async dispatch that completes a stream was authorised as the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/login").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/auth/jwks").permitAll()
                        .requestMatchers("/api/marches/societes").authenticated() // ⬅️ Require auth
                        .requestMatchers(HttpMethod.POST, "/api/materiels").authenticated()
                         .requestMatchers("/api/users/**").hasRole(Role.ADMIN.name())
+                        .requestMatchers("/api/changes/**").hasAnyRole(Role.ADMIN.name(), Role.SUPER_ADMIN.name())
                         .requestMatchers("/api/admin/**").hasRole(Role.SUPER_ADMIN.name())
+                        .requestMatchers(EndpointRequest.to("metrics")).hasRole(Role.SUPER_ADMIN.name())
+                        .requestMatchers(EndpointRequest.to("health")).authenticated()
                         .anyRequest().authenticated())
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new TimedFilter("jwt", jwtFilter, meterRegistry),
+                        UsernamePasswordAuthenticationFilter.class);
     
 
         return http.build();
@@ -112,8 +173,10 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         //
         configuration.setAllowedOrigins(List.of("http://localhost:5173/"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "HEAD"));
         configuration.setAllowedHeaders(List.of("*"));
+        // conditional requests: the front-end reads ETag to send it back in If-Match / If-None-Match
+        configuration.setExposedHeaders(List.of(HttpHeaders.ETAG));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
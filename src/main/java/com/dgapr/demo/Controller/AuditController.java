@@ -0,0 +1,160 @@
+package com.dgapr.demo.Controller;
+
+import com.dgapr.demo.Dto.AuditDto.ActivitySummary;
+import com.dgapr.demo.Dto.AuditDto.AuditLogEntry;
+import com.dgapr.demo.Dto.AuditDto.AuditLogFilter;
+import com.dgapr.demo.Dto.AuditDto.AuditLogPage;
+import com.dgapr.demo.Dto.AuditDto.HistoricalState;
+import com.dgapr.demo.Dto.AuditDto.HistoricalStatePage;
+import com.dgapr.demo.Service.AuditHistoryService;
+import com.dgapr.demo.Service.AuditService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST controller exposing the audit log to administrators.
+ * Access to {@code /api/admin/**} is restricted to the 'SUPER_ADMIN' role by the security configuration.
+ */
+@RestController
+@RequestMapping("/api/admin/audit")
+@RequiredArgsConstructor
+public class AuditController {
+
+    private final AuditService auditService;
+    private final AuditHistoryService auditHistoryService;
+
+    /**
+     * Retrieves audit entries, newest first, with keyset pagination: the response carries a
+     * {@code nextCursor} to pass back as {@code cursor} for the next page ({@code null} on the last page).
+     *
+     * @param table     Only entries of this table (e.g. {@code Certificate}, {@code users}).
+     * @param rowId     Only entries of this row.
+     * @param user      Only entries made by this user.
+     * @param operation Only entries of this operation (CREATE, UPDATE, DELETE, HARD_DELETE).
+     * @param from      Only entries at or after this instant (ISO-8601, e.g. {@code 2025-01-31T00:00:00Z}).
+     * @param to        Only entries before this instant.
+     * @param cursor    The {@code nextCursor} of the previous page.
+     * @param limit     The page size (default {@value AuditService#DEFAULT_LIMIT}, at most {@value AuditService#MAX_LIMIT}).
+     * @return A {@link ResponseEntity} containing the {@link AuditLogPage} (HTTP 200 OK),
+     * or an HTTP 400 Bad Request status if the cursor, limit or time range is invalid.
+     */
+    @GetMapping
+    public ResponseEntity<AuditLogPage> getAuditLog(
+            @RequestParam(required = false) String table,
+            @RequestParam(required = false) String rowId,
+            @RequestParam(required = false) String user,
+            @RequestParam(required = false) String operation,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        AuditLogFilter filter = new AuditLogFilter(table, rowId, user, operation, from, to);
+        return ResponseEntity.ok(auditService.getAuditLog(filter, cursor, limit));
+    }
+
+    /**
+     * Retrieves archived audit entries (months removed from the table by the retention job), with the
+     * same filters, ordering and cursor pagination as {@link #getAuditLog}.
+     *
+     * @return A {@link ResponseEntity} containing the {@link AuditLogPage} (HTTP 200 OK),
+     * or an HTTP 400 Bad Request status if the cursor, limit or time range is invalid.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<AuditLogPage> getArchivedAuditLog(
+            @RequestParam(required = false) String table,
+            @RequestParam(required = false) String rowId,
+            @RequestParam(required = false) String user,
+            @RequestParam(required = false) String operation,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        AuditLogFilter filter = new AuditLogFilter(table, rowId, user, operation, from, to);
+        return ResponseEntity.ok(auditService.getArchivedAuditLog(filter, cursor, limit));
+    }
+
+    /**
+     * Retrieves the most recent audit entries relayed by this instance, newest first, from an in-memory
+     * buffer: cheap enough to poll, but unfiltered, without audit ids, and empty after a restart.
+     *
+     * @param limit The number of entries (default {@value AuditService#DEFAULT_LIMIT}, at most {@value AuditService#MAX_LIMIT}).
+     * @return A {@link ResponseEntity} containing the entries (HTTP 200 OK),
+     * or an HTTP 400 Bad Request status if the limit is invalid.
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<List<AuditLogEntry>> getRecentActivity(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(auditService.getRecentActivity(limit));
+    }
+
+    /**
+     * Retrieves a row as it was at a point in time, rebuilt from the audit trail.
+     *
+     * @param table The audited table (e.g. {@code Certificate}, {@code users}).
+     * @param rowId The id of the row.
+     * @param at    The instant (ISO-8601); now when absent.
+     * @return A {@link ResponseEntity} containing the {@link HistoricalState} (HTTP 200 OK),
+     * an HTTP 404 Not Found status if the row did not exist at that time,
+     * or an HTTP 400 Bad Request status if the history of the table is not kept.
+     */
+    @GetMapping("/history/{table}/{rowId}")
+    public ResponseEntity<HistoricalState> getRowAsOf(
+            @PathVariable String table,
+            @PathVariable String rowId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at
+    ) {
+        return auditHistoryService.getAsOf(table, rowId, at)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retrieves all rows of a table as they were at a point in time, in row id order, paginated with
+     * the {@code nextCursor} of the previous page.
+     *
+     * @param table  The audited table (e.g. {@code Certificate}, {@code users}).
+     * @param at     The instant (ISO-8601); now when absent.
+     * @param cursor The {@code nextCursor} of the previous page.
+     * @param limit  The page size (default {@value AuditService#DEFAULT_LIMIT}, at most {@value AuditService#MAX_LIMIT}).
+     * @return A {@link ResponseEntity} containing the {@link HistoricalStatePage} (HTTP 200 OK),
+     * or an HTTP 400 Bad Request status if the table, cursor or limit is invalid.
+     */
+    @GetMapping("/history/{table}")
+    public ResponseEntity<HistoricalStatePage> getTableAsOf(
+            @PathVariable String table,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(auditHistoryService.getAllAsOf(table, at, cursor, limit));
+    }
+
+    /**
+     * Retrieves per-user activity: the number of audit entries per day (UTC), table and operation.
+     *
+     * @param user Only this user's activity; all users when absent.
+     * @param from The first day (ISO date); {@value AuditService#DEFAULT_ACTIVITY_DAYS} days before {@code to} when absent.
+     * @param to   The last day (ISO date); today when absent.
+     * @return A {@link ResponseEntity} containing the counters, most recent day first (HTTP 200 OK),
+     * or an HTTP 400 Bad Request status if the range is invalid.
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<List<ActivitySummary>> getActivity(
+            @RequestParam(required = false) String user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(auditService.getActivity(user, from, to));
+    }
+}
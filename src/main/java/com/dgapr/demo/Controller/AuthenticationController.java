@@ -1,9 +1,10 @@
 package com.dgapr.demo.Controller;
 
-import com.dgapr.demo.Audit.AuditContext;
+import com.dgapr.demo.Audit.WithoutAudit;
 import com.dgapr.demo.Dto.AuthDto.AuthRequest;
 import com.dgapr.demo.Dto.AuthDto.AuthResponse;
-import com.dgapr.demo.Model.User.User;
+import com.dgapr.demo.Security.AuthenticatedPrincipal;
+import com.dgapr.demo.Security.JwtKeyRing;
 import com.dgapr.demo.Service.AuthenticationService;
 import com.dgapr.demo.Service.UserService;
 import jakarta.validation.Valid;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder; // If needed, or use @AuthenticationPrincipal
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -24,6 +26,7 @@ import java.util.Map;
  * REST endpoints for user authentication operations:
  * - /login: authenticate credentials and return JWT + role
  * - /logout: revoke current user's tokens
+ * - /jwks: public verification keys for services that validate tokens locally
  */
 @Slf4j
 @RestController
@@ -32,11 +35,14 @@ public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
     private final UserService userService;
+    private final JwtKeyRing keyRing;
 
     @Autowired
-    public AuthenticationController(AuthenticationService authenticationService, UserService userService) {
+    public AuthenticationController(AuthenticationService authenticationService, UserService userService,
+                                    JwtKeyRing keyRing) {
         this.authenticationService = authenticationService;
         this.userService = userService;
+        this.keyRing = keyRing;
     }
 
     /**
@@ -62,12 +68,14 @@ public class AuthenticationController {
     /**
      * Logs out the currently authenticated user by revoking their tokens.
      * The JWT must be provided in the Authorization header.
+     * The token revocation is not audited.
      *
      * @param authenticatedUser The currently authenticated user principal.
      * @return 200 + success message on successful logout.
      */
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout(@AuthenticationPrincipal User authenticatedUser) {
+    @WithoutAudit
+    public ResponseEntity<Map<String, String>> logout(@AuthenticationPrincipal AuthenticatedPrincipal authenticatedUser) {
 
         if (authenticatedUser == null) {
             log.warn("Logout attempt by unauthenticated user.");
@@ -75,19 +83,27 @@ public class AuthenticationController {
                     .body(Map.of("message", "No authenticated user found to logout."));
         }
         try {
-            log.info("Logging out user: {}", authenticatedUser.getUsername());
-            AuditContext.disableAudit();
-            userService.revokeTokens(authenticatedUser.getId());
+            log.info("Logging out user: {}", authenticatedUser.username());
+            userService.revokeTokens(authenticatedUser.id());
             SecurityContextHolder.clearContext();
             return ResponseEntity.ok(Map.of("message", "Logged out successfully."));
         } catch (Exception e) {
-            log.error("Error during logout for user {}: {}", authenticatedUser.getUsername(), e.getMessage(), e);
+            log.error("Error during logout for user {}: {}", authenticatedUser.username(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "An error occurred during logout."));
-        } finally {
-            AuditContext.clear();
         }
 
     }
-}
 
+    /**
+     * Publishes the public keys currently accepted for token verification as a JWK Set.
+     * Other services use it to verify tokens locally instead of calling this backend.
+     * The set is empty when tokens are signed with the shared HMAC secret.
+     *
+     * @return 200 + the JWK Set ({@code {"keys":[...]}}).
+     */
+    @GetMapping("/jwks")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok(keyRing.getJwkSet());
+    }
+}
@@ -1,19 +1,31 @@
 package com.dgapr.demo.Controller;
 
 import com.dgapr.demo.Dto.CertifDto.CertifCreateDto;
+import com.dgapr.demo.Dto.CertifDto.CertifImportReport;
 import com.dgapr.demo.Dto.CertifDto.CertifResponseDto;
 import com.dgapr.demo.Dto.CertifDto.CertifUpdateDto;
+import com.dgapr.demo.Service.CertifImportService;
 import com.dgapr.demo.Service.CertifService;
+import com.dgapr.demo.Util.ETags;
+import com.dgapr.demo.Util.MergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST controller for managing certificates.
@@ -24,10 +36,12 @@ import java.util.Map;
 public class CertifController {
 
     private final CertifService certifService;
+    private final CertifImportService certifImportService;
 
     @Autowired
-    public CertifController(CertifService certifService) {
+    public CertifController(CertifService certifService, CertifImportService certifImportService) {
         this.certifService = certifService;
+        this.certifImportService = certifImportService;
     }
 
     /**
@@ -50,20 +64,68 @@ public class CertifController {
 
     /**
      * Retrieves a single certificate by its ID.
+     * The response carries a strong ETag derived from the certificate's version; when the request's
+     * {@code If-None-Match} matches it, only the version is read and no body is sent.
      *
      * @param id The unique identifier of the certificate to retrieve.
+     * @param ifNoneMatch The ETag(s) of the client's cached copy, if any.
      * @return A {@link ResponseEntity} containing the {@link CertifResponseDto} if found (HTTP 200 OK),
+     * HTTP 304 Not Modified if the client's copy is current,
      * or an HTTP 404 Not Found status if no certificate with the given ID exists.
      */
     @GetMapping("/{id}")
     public ResponseEntity<CertifResponseDto> getCertificateById(
-            @PathVariable Integer id
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
+        Optional<Long> version = certifService.getCertificatVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+            return ETags.notModified(ETags.of(version.get()));
+        }
         return certifService.getCertificatById(id)
-                .map(ResponseEntity::ok)
+                .map(dto -> ResponseEntity.ok().eTag(ETags.of(dto.getVersion())).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Retrieves the distinct organizational units of active certificates, or with {@code prefix} the first
+     * {@code limit} of them starting with it (case-insensitive), for typeahead.
+     *
+     * @param prefix The typed prefix; omit it for the full list.
+     * @param limit The maximum number of typeahead matches (default 10, at most 100).
+     * @param webRequest The current request, used to answer a matching {@code If-None-Match} with 304 Not Modified.
+     * @return A {@link ResponseEntity} containing the values and their ETag (HTTP 200 OK).
+     */
+    @GetMapping("/organizational-units")
+    public ResponseEntity<List<String>> getOrganizationalUnits(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest
+    ) {
+        return VocabularyResponses.of(certifService.getOrganizationalUnits(), prefix, limit, webRequest);
+    }
+
+    /**
+     * Retrieves the distinct types of active certificates, or with {@code prefix} the first
+     * {@code limit} of them starting with it (case-insensitive), for typeahead.
+     *
+     * @param prefix The typed prefix; omit it for the full list.
+     * @param limit The maximum number of typeahead matches (default 10, at most 100).
+     * @param webRequest The current request, used to answer a matching {@code If-None-Match} with 304 Not Modified.
+     * @return A {@link ResponseEntity} containing the values and their ETag (HTTP 200 OK).
+     */
+    @GetMapping("/types")
+    public ResponseEntity<List<String>> getTypes(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest
+    ) {
+        return VocabularyResponses.of(certifService.getTypes(), prefix, limit, webRequest);
+    }
+
     /**
      * Creates a new certificate.
      *
@@ -79,21 +141,74 @@ public class CertifController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    /**
+     * Imports certificates in bulk from a JSON array streamed in the request body.
+     * Rows are parsed one at a time, duplicates are rejected per row, and valid rows are batch-inserted.
+     *
+     * @param request The HTTP request whose body is a JSON array of {@link CertifCreateDto}.
+     * @return A {@link ResponseEntity} containing the {@link CertifImportReport} (HTTP 200 OK).
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CertifImportReport> importCertificates(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(certifImportService.importJson(request.getInputStream()));
+    }
+
+    /**
+     * Imports certificates in bulk from a CSV file streamed in the request body (header line required).
+     *
+     * @param request The HTTP request whose body is the CSV export.
+     * @return A {@link ResponseEntity} containing the {@link CertifImportReport} (HTTP 200 OK).
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<CertifImportReport> importCertificatesCsv(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(certifImportService.importCsv(request.getReader()));
+    }
+
     /**
      * Updates an existing certificate.
      *
      * @param id The unique identifier of the certificate to update.
      * @param dto The {@link CertifUpdateDto} containing the updated certificate data.
-     * @return A {@link ResponseEntity} containing the updated {@link CertifResponseDto} if found and updated (HTTP 200 OK),
-     * or an HTTP 404 Not Found status if no certificate with the given ID exists.
+     * @param ifMatch The ETag of the copy the update is based on; optional, but when sent the update
+     * only applies if the certificate has not been modified since.
+     * @return A {@link ResponseEntity} containing the updated {@link CertifResponseDto} and its new ETag if found and updated (HTTP 200 OK),
+     * an HTTP 404 Not Found status if no certificate with the given ID exists,
+     * or an HTTP 409 Conflict status if the certificate was modified since the {@code If-Match} version.
      */
     @PutMapping("/{id}")
     public ResponseEntity<CertifResponseDto> updateCertificate(
             @PathVariable Integer id,
-            @RequestBody CertifUpdateDto dto
+            @RequestBody CertifUpdateDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return certifService.updateCertificat(id, dto, ETags.parseVersion(ifMatch))
+            .map(updated -> ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Partially updates an existing certificate with a JSON Merge Patch (RFC 7396): only the fields
+     * present in the body are changed, and {@code null} clears an optional field.
+     *
+     * @param id The unique identifier of the certificate to patch.
+     * @param patch The merge patch, e.g. {@code {"expirationDate": "2026-12-31"}}.
+     * @param ifMatch The ETag of the copy the patch is based on; optional, but when sent the patch
+     * only applies if the certificate has not been modified since.
+     * @return A {@link ResponseEntity} containing the updated {@link CertifResponseDto} and its new ETag if found and updated (HTTP 200 OK),
+     * an HTTP 400 Bad Request status if the patch is invalid or clears a required field,
+     * an HTTP 404 Not Found status if no active certificate with the given ID exists,
+     * or an HTTP 409 Conflict status if the certificate was modified since the {@code If-Match} version.
+     */
+    @PatchMapping(value = "/{id}", consumes = {MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<CertifResponseDto> patchCertificate(
+            @PathVariable Integer id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return certifService.updateCertificat(id, dto)
-            .map(ResponseEntity::ok)
+        return certifService.patchCertificat(id, patch, ETags.parseVersion(ifMatch))
+            .map(updated -> ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated))
             .orElse(ResponseEntity.notFound().build());
     }
 
@@ -0,0 +1,64 @@
+package com.dgapr.demo.Controller;
+
+import com.dgapr.demo.Audit.AuditChangeStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST controller streaming committed entity changes as server-sent events, so dashboards can refresh
+ * what changed instead of polling the listings.
+ * Access to {@code /api/changes/**} is restricted to the 'ADMIN' and 'SUPER_ADMIN' roles by the security configuration.
+ *
+ * <p>Like every API endpoint, the stream is authenticated by the JWT in the {@code Authorization} header,
+ * which the browser's native {@code EventSource} cannot send: clients must use a fetch-based SSE client
+ * (such as {@code @microsoft/fetch-event-source}), which sets the header and, on reconnection,
+ * {@code Last-Event-ID}.</p>
+ */
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+
+    private final AuditChangeStream changeStream;
+
+    @Value("${changes.stream.timeout-ms:1800000}")
+    private long timeout;
+
+    /**
+     * Opens a change stream. Each {@code change} event carries a {@link com.dgapr.demo.Dto.AuditDto.ChangeEvent}
+     * as JSON, with its offset as event id. A {@code reset} event means changes were missed and the client
+     * should reload its data; its id is the offset to resume after.
+     *
+     * @param tables       Only changes of these tables (e.g. {@code Certificate}, {@code users}); all when absent.
+     * @param lastEventId  Sent by the client on reconnection: the offset of the last event received.
+     * @param from         Same as {@code Last-Event-ID}, for a client resuming from an offset it stored itself
+     *                     (e.g. after a page reload); the header takes precedence.
+     * @return The event stream (HTTP 200 OK, {@code text/event-stream}),
+     * or an HTTP 400 Bad Request status if the offset is not a number.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) List<String> tables,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String from
+    ) {
+        String offset = lastEventId != null ? lastEventId : from;
+        Long lastOffset;
+        try {
+            lastOffset = (offset == null || offset.isBlank()) ? null : Long.valueOf(offset.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid offset '" + offset + "'.");
+        }
+        return changeStream.subscribe(tables == null ? Set.of() : Set.copyOf(tables), lastOffset, timeout);
+    }
+}
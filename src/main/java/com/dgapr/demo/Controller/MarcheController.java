@@ -2,13 +2,27 @@ package com.dgapr.demo.Controller;
 
 
 
+import com.dgapr.demo.Dto.MarcheDto.MarcheResponseDto;
 import com.dgapr.demo.Model.Marche;
 import com.dgapr.demo.Service.MarcheService;
+import com.dgapr.demo.Util.ETags;
+import com.dgapr.demo.Util.MergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.dgapr.demo.Repository.MarcheRepository;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 
 @RestController
@@ -34,22 +48,48 @@ public class MarcheController {
         return marcheService.addMarche(marche);
     }
 
-    // show all marchés
+    /**
+     * Retrieves a paginated list of marchés, with optional filtering
+     * (see {@link com.dgapr.demo.Specification.MarcheSpecification} for the supported filters).
+     *
+     * @param pageable Pagination and sorting information. Defaults to 50 items per page, newest first.
+     * @param filterParams A {@link Map} of filter parameters to apply to the marché search.
+     * @return A {@link ResponseEntity} containing a {@link Page} of {@link MarcheResponseDto} objects.
+     */
     @GetMapping
-    public List<Marche> getAllMarches() {
-        return marcheService.getAllMarches();
+    public ResponseEntity<Page<MarcheResponseDto>> getMarchesPaginated(
+            @PageableDefault(size = 50, sort = "id", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam Map<String, String> filterParams
+    ) {
+        return ResponseEntity.ok(marcheService.getMarches(pageable, filterParams));
     }
 
-    // get all marches by id
+    // get marche by id; strong ETag from its version, 304 when If-None-Match matches (only the version is read)
     @GetMapping("/{id}")
-    public Marche getMarcheById(@PathVariable Long id) {
-        return marcheService.getMarcheById(id);
+    public ResponseEntity<Marche> getMarcheById(@PathVariable Long id,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<Long> version = marcheService.getMarcheVersion(id);
+        if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+            return ETags.notModified(ETags.of(version.get()));
+        }
+        Marche marche = marcheService.getMarcheById(id);
+        return ResponseEntity.ok().eTag(ETags.of(marche.getVersion())).body(marche);
     }
 
-    //  update marché
+    //  update marché; If-Match (the ETag of the copy being edited) turns a concurrent edit into a 409
     @PutMapping("/{id}")
-    public Marche updateMarche(@PathVariable Long id, @RequestBody Marche marche) {
-        return marcheService.updateMarche(id, marche);
+    public ResponseEntity<Marche> updateMarche(@PathVariable Long id, @RequestBody Marche marche,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Marche updated = marcheService.updateMarche(id, marche, ETags.parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
+    }
+
+    //  partial update with a JSON Merge Patch: only the fields sent are changed (null clears one)
+    @PatchMapping(value = "/{id}", consumes = {MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Marche> patchMarche(@PathVariable Long id, @RequestBody JsonNode patch,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Marche updated = marcheService.patchMarche(id, patch, ETags.parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     //  delete marché
@@ -57,10 +97,12 @@ public class MarcheController {
     public void deleteMarche(@PathVariable Long id) {
         marcheService.deleteMarche(id);
     }
-    //  get all distinct sociétés
+    //  get all distinct sociétés (cached; ?prefix= for typeahead; 304 when If-None-Match matches)
     @GetMapping("/societes")
-    public List<String> getSocietes() {
-        return marcheRepository.findDistinctSocietes();
+    public ResponseEntity<List<String>> getSocietes(@RequestParam(required = false) String prefix,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    WebRequest webRequest) {
+        return VocabularyResponses.of(marcheService.getDistinctSocietes(), prefix, limit, webRequest);
     }
 
     // 
@@ -2,16 +2,30 @@ package com.dgapr.demo.Controller;
 
 
 import com.dgapr.demo.Dto.MaterielDto;
-import com.dgapr.demo.Model.Marche;
+import com.dgapr.demo.Dto.MaterielImportReport;
+import com.dgapr.demo.Dto.MaterielResponseDto;
 import com.dgapr.demo.Model.Materiel;
+import com.dgapr.demo.Service.MaterielImportService;
 import com.dgapr.demo.Service.MaterielService;
+import com.dgapr.demo.Util.ETags;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.dgapr.demo.Repository.MaterielRepository;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +35,9 @@ public class MaterielController {
 
     @Autowired
     private MaterielService materielService;
+
+    @Autowired
+    private MaterielImportService materielImportService;
     
     @PostMapping
      public ResponseEntity<?> addMateriel(@RequestBody MaterielDto dto) {
@@ -35,19 +52,55 @@ public class MaterielController {
      }
     
 
+    // bulk import from a JSON array of MaterielDto; returns a per-row error report
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MaterielImportReport importMateriels(@RequestBody List<MaterielDto> dtos) {
+        return materielImportService.importMateriels(dtos);
+    }
+
+    // bulk import from a CSV file streamed in the request body (header line required)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public MaterielImportReport importMaterielsCsv(HttpServletRequest request) throws IOException {
+        return materielImportService.importCsv(request.getReader());
+    }
+
+    // list materiels; ?expand=marche embeds the full marché (fetch join) instead of its id/title
     @GetMapping
-    public List<Materiel> getAllMateriels() {
-        return materielService.getAllMateriels();
+    public List<MaterielResponseDto> getAllMateriels(@RequestParam(required = false) String expand) {
+        return materielService.getAllMateriels("marche".equals(expand));
     }
 
+    // weak ETag from the versions of the materiel and of its marché (whose title the body carries);
+    // 304 when If-None-Match matches (only the versions are read)
     @GetMapping("/{id}")
-    public Optional<Materiel> getMaterielById(@PathVariable Long id) {
-        return materielService.getMaterielById(id);
+    public ResponseEntity<MaterielResponseDto> getMaterielById(@PathVariable Long id,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<MaterielRepository.Versions> versions = materielService.getMaterielVersions(id);
+        if (versions.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String current = ETags.of(versions.get().getVersion(), versions.get().getMarcheVersion());
+        if (ETags.matches(ifNoneMatch, current)) {
+            return ETags.notModified(current);
+        }
+        return materielService.getMaterielById(id)
+                .map(dto -> ResponseEntity.ok().eTag(ETags.of(dto.getVersion(), dto.getMarcheVersion())).body(dto))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/marches/{marcheId}")
-    public List<Materiel> getMaterielsByMarcheId(@PathVariable Long marcheId) {
-        return materielService.getMaterielsByMarcheId(marcheId);
+    public List<MaterielResponseDto> getMaterielsByMarcheId(@PathVariable Long marcheId,
+                                                            @RequestParam(required = false) String expand) {
+        return materielService.getMaterielsByMarcheId(marcheId, "marche".equals(expand));
+    }
+
+    // materiels whose warranty ends in [from, to] (YYYY-MM-DD), soonest first, paginated
+    @GetMapping("/warranty")
+    public Page<MaterielResponseDto> getMaterielsByWarrantyEnd(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @PageableDefault(size = 50) Pageable pageable) {
+        return materielService.getMaterielsByWarrantyEnd(from, to, pageable);
     }
 
     @DeleteMapping("/{id}")
@@ -55,13 +108,18 @@ public class MaterielController {
         materielService.deleteMateriel(id);
     }
 
+    // distinct vocabularies (cached; ?prefix= for typeahead; 304 when If-None-Match matches)
     @GetMapping("/typesequipements")
-    public List<String> getAllTypeEquipements() {
-        return materielService.getAllTypeEquipements();
+    public ResponseEntity<List<String>> getAllTypeEquipements(@RequestParam(required = false) String prefix,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              WebRequest webRequest) {
+        return VocabularyResponses.of(materielService.getAllTypeEquipements(), prefix, limit, webRequest);
     }
     @GetMapping("/gammes")
-    public List<String> getAllGammes() {
-        return materielService.getAllGammes();
+    public ResponseEntity<List<String>> getAllGammes(@RequestParam(required = false) String prefix,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     WebRequest webRequest) {
+        return VocabularyResponses.of(materielService.getAllGammes(), prefix, limit, webRequest);
     }
      public void someMethod(Materiel materiel) {
         System.out.println("Garantie durée: " + materiel.getGarantie_duree());
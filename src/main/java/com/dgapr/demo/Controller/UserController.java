@@ -3,7 +3,9 @@ package com.dgapr.demo.Controller;
 import com.dgapr.demo.Dto.UserDto.UserDto;
 import com.dgapr.demo.Dto.UserDto.UserResponseDto;
 import com.dgapr.demo.Model.User.User;
+import com.dgapr.demo.Security.AuthenticatedPrincipal;
 import com.dgapr.demo.Service.UserService;
+import com.dgapr.demo.Util.ETags;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -13,15 +15,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -60,18 +63,28 @@ public class UserController {
     /**
      * Retrieves a single user by their unique ID.
      * Requires the calling user to have the 'ADMIN' role.
+     * The response carries a strong ETag derived from the user's version; a matching
+     * {@code If-None-Match} is answered with 304 after reading only the version.
      *
      * @param id The UUID of the user to retrieve.
+     * @param ifNoneMatch The ETag(s) of the client's cached copy, if any.
      * @return A {@link ResponseEntity} containing the {@link UserResponseDto} if found,
+     * {@code HttpStatus.NOT_MODIFIED} if the client's copy is current,
      * or an error message with {@code HttpStatus.NOT_FOUND} if the user does not exist,
      * or {@code HttpStatus.INTERNAL_SERVER_ERROR} for other issues.
      * @apiNote Requires 'ADMIN' role.
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getUserById(@PathVariable UUID id) {
+    public ResponseEntity<?> getUserById(@PathVariable UUID id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(userService.getUserById(id));
+            Optional<Long> version = userService.getUserVersion(id);
+            if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+                return ETags.notModified(ETags.of(version.get()));
+            }
+            UserResponseDto user = userService.getUserById(id);
+            return ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(user);
         } catch (EntityNotFoundException e) {
             log.warn("Warn getting user: User not found with id: {}", id);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -117,19 +130,25 @@ public class UserController {
      * @param id      The UUID of the user to update.
      * @param userDto A {@link UserDto} object containing the updated user details,
      * validated using {@code @Valid}.
+     * @param ifMatch The ETag of the copy the update is based on; optional, but when sent the update
+     * only applies if the user has not been modified since.
      * @return A {@link ResponseEntity} with a success message and updated user data if successful,
      * or an error message with {@code HttpStatus.NOT_FOUND} if the user does not exist,
-     * or {@code HttpStatus.BAD_REQUEST} if validation fails or data is invalid.
+     * {@code HttpStatus.BAD_REQUEST} if validation fails or data is invalid,
+     * or {@code HttpStatus.CONFLICT} if the user was modified since the {@code If-Match} version.
      * @apiNote Requires 'ADMIN' role.
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> updateUser(@PathVariable UUID id, @Valid @RequestBody UserDto userDto) {
+    public ResponseEntity<?> updateUser(@PathVariable UUID id, @Valid @RequestBody UserDto userDto,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             log.debug("Updating user {} with data: {}", id, userDto);
-            UserDto user = userService.updateUser(id, userDto);
+            UserDto user = userService.updateUser(id, userDto, ETags.parseVersion(ifMatch));
             log.debug("User updated successfully: {}", user);
-            return ResponseEntity.ok(Map.of(
+            // the version written by this update, not re-read: a later writer's version would let this
+            // client's next If-Match overwrite that writer's change
+            return ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(Map.of(
                     "message", String.format("User ' %s ' has been successfully updated", user.getUsername()),
                     "user", user
             ));
@@ -194,19 +213,29 @@ public class UserController {
      * Retrieves the details of the currently authenticated user.
      * This endpoint is accessible to any authenticated user.
      *
-     * @param userDetails The {@link UserDetails} object representing the currently authenticated user,
+     * The response carries a strong ETag derived from the user's version; a matching
+     * {@code If-None-Match} is answered with 304 after reading only the version.
+     *
+     * @param userDetails The {@link AuthenticatedPrincipal} representing the currently authenticated user,
      * injected by Spring Security.
+     * @param ifNoneMatch The ETag(s) of the client's cached copy, if any.
      * @return A {@link ResponseEntity} containing a map of the current user's details
      * (id, username, email, role, first name, last name),
+     * {@code HttpStatus.NOT_MODIFIED} if the client's copy is current,
      * or an error message with {@code HttpStatus.NOT_FOUND} if the user is not found,
      * or {@code HttpStatus.INTERNAL_SERVER_ERROR} for other issues.
      */
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal AuthenticatedPrincipal userDetails,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            Optional<Long> version = userService.getUserVersion(userDetails.id());
+            if (version.isPresent() && ETags.matches(ifNoneMatch, ETags.of(version.get()))) {
+                return ETags.notModified(ETags.of(version.get()));
+            }
             UserResponseDto user = userService.loadUserByUsername(userDetails.getUsername());
             log.info("user is finde", user.getUsername());
-            return ResponseEntity.ok(Map.of(
+            return ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(Map.of(
                     "id", user.getId(),
                     "username", user.getUsername(),
                     "email", user.getEmail(),
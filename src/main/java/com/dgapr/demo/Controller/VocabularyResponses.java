@@ -0,0 +1,50 @@
+package com.dgapr.demo.Controller;
+
+import com.dgapr.demo.Util.ETags;
+import com.dgapr.demo.Vocabulary.VocabularyCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+/**
+ * Builds the responses of the distinct-value (vocabulary) endpoints shared by several controllers.
+ */
+final class VocabularyResponses {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 100;
+
+    private VocabularyResponses() {
+    }
+
+    /**
+     * Returns the whole vocabulary, or its first {@code limit} values starting with {@code prefix}
+     * (case-insensitive) when a prefix is given.
+     *
+     * <p>The response carries the snapshot's ETag: for a given URL, the body only changes when the
+     * vocabulary does, so a matching {@code If-None-Match} is answered with 304 and no body.</p>
+     *
+     * @param snapshot   the cached vocabulary
+     * @param prefix     the typeahead prefix, or {@code null} for the full list
+     * @param limit      the maximum number of typeahead matches, or {@code null} for the default
+     * @param webRequest the current request, for conditional GET handling
+     * @return the values, or an empty 304 response when the client's copy is current
+     * @throws IllegalArgumentException if {@code limit} is not between 1 and {@value #MAX_LIMIT}
+     */
+    static ResponseEntity<List<String>> of(VocabularyCache.Snapshot snapshot, String prefix, Integer limit,
+                                           WebRequest webRequest) {
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new IllegalArgumentException("Invalid limit '" + limit + "'. Expected a value between 1 and " + MAX_LIMIT + ".");
+        }
+        if (ETags.matches(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH), snapshot.etag())) {
+            return ETags.notModified(snapshot.etag());
+        }
+        List<String> body = prefix == null
+                ? snapshot.values()
+                : snapshot.index().lookup(prefix, limit == null ? DEFAULT_LIMIT : limit);
+        return ResponseEntity.ok().eTag(snapshot.etag()).cacheControl(CacheControl.noCache()).body(body);
+    }
+}
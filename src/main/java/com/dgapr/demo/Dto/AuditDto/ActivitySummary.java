@@ -0,0 +1,15 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import java.time.LocalDate;
+
+/**
+ * Number of audit entries of one user on one day (UTC), for one table and operation.
+ *
+ * @param modifiedBy the user, or SYSTEM
+ * @param day        the day
+ * @param tableName  the audited table
+ * @param operation  the operation
+ * @param count      the number of entries
+ */
+public record ActivitySummary(String modifiedBy, LocalDate day, String tableName, String operation, long count) {
+}
@@ -0,0 +1,19 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import java.time.Instant;
+
+/**
+ * An {@code audit_log} row as returned by the audit query API, read as a projection rather than
+ * as a managed {@link com.dgapr.demo.Model.AuditLog} entity.
+ *
+ * @param auditId    the audit entry id, tie-breaker of the (timestamp, auditId) ordering
+ * @param tableName  the audited table
+ * @param rowId      the id of the audited row
+ * @param operation  CREATE, UPDATE, DELETE or HARD_DELETE
+ * @param modifiedBy the user who made the change, or SYSTEM
+ * @param timestamp  when the change was recorded
+ * @param details    the entity snapshot or the old/new diff, as JSON
+ */
+public record AuditLogEntry(Long auditId, String tableName, String rowId, String operation,
+                            String modifiedBy, Instant timestamp, String details) {
+}
@@ -0,0 +1,32 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import java.time.Instant;
+
+/**
+ * Criteria of an audit log query; {@code null} members are not filtered on.
+ *
+ * @param tableName  exact table name
+ * @param rowId      exact row id
+ * @param modifiedBy exact user name
+ * @param operation  exact operation
+ * @param from       inclusive lower bound of the timestamp
+ * @param to         exclusive upper bound of the timestamp
+ */
+public record AuditLogFilter(String tableName, String rowId, String modifiedBy, String operation,
+                             Instant from, Instant to) {
+
+    /**
+     * Applies the criteria in memory, for entries that are not queried from the database (archives).
+     *
+     * @param entry an audit entry
+     * @return {@code true} if the entry satisfies every criterion that is set
+     */
+    public boolean matches(AuditLogEntry entry) {
+        return (tableName == null || tableName.equals(entry.tableName()))
+                && (rowId == null || rowId.equals(entry.rowId()))
+                && (modifiedBy == null || modifiedBy.equals(entry.modifiedBy()))
+                && (operation == null || operation.equals(entry.operation()))
+                && (from == null || !entry.timestamp().isBefore(from))
+                && (to == null || entry.timestamp().isBefore(to));
+    }
+}
@@ -0,0 +1,12 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import java.util.List;
+
+/**
+ * One page of audit entries, newest first.
+ *
+ * @param items      the entries of this page
+ * @param nextCursor the cursor to pass back to get the next (older) page, or {@code null} on the last page
+ */
+public record AuditLogPage(List<AuditLogEntry> items, String nextCursor) {
+}
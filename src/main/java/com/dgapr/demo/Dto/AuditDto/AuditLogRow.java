@@ -0,0 +1,14 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import java.time.Instant;
+
+/**
+ * An {@code audit_log} row as stored, before its details are decoded into an {@link AuditLogEntry}
+ * by {@link com.dgapr.demo.Audit.AuditDetailsCodec#toEntry}.
+ *
+ * @param details     the text details of rows written before the binary format, otherwise {@code null}
+ * @param detailsData the encoded details
+ */
+public record AuditLogRow(Long auditId, String tableName, String rowId, String operation,
+                          String modifiedBy, Instant timestamp, String details, byte[] detailsData) {
+}
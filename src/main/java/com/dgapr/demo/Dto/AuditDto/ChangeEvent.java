@@ -0,0 +1,20 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A committed entity change as streamed to dashboards by the change stream.
+ *
+ * @param offset     position in the stream of this instance, increasing by one per change; sent as the
+ *                   SSE event id, so a reconnecting client resumes after it with {@code Last-Event-ID}
+ * @param table      the changed table
+ * @param rowId      the id of the changed row
+ * @param operation  CREATE, UPDATE, DELETE, HARD_DELETE or BULK_CREATE
+ * @param modifiedBy the user who made the change, or SYSTEM
+ * @param timestamp  when the change was made
+ * @param fields     the changed fields (all audited fields for a creation or deletion), without values
+ */
+public record ChangeEvent(long offset, String table, String rowId, String operation, String modifiedBy,
+                          Instant timestamp, List<String> fields) {
+}
@@ -0,0 +1,20 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+
+/**
+ * The state of an audited row at a point in time, rebuilt from the audit trail.
+ *
+ * @param tableName  the audited table
+ * @param rowId      the id of the row
+ * @param at         the instant asked for
+ * @param lastChange timestamp of the last change at or before {@code at} (when the baseline was taken, for
+ *                   a row unchanged since its history started)
+ * @param deleted    whether the row had been hard-deleted (a soft delete shows as {@code isDeleted} in {@code state})
+ * @param state      the audited field values (protected fields masked, associations as ids)
+ */
+public record HistoricalState(String tableName, String rowId, Instant at, Instant lastChange, boolean deleted,
+                              JsonNode state) {
+}
@@ -0,0 +1,12 @@
+package com.dgapr.demo.Dto.AuditDto;
+
+import java.util.List;
+
+/**
+ * One page of row states at a point in time, in row id order.
+ *
+ * @param items      the states
+ * @param nextCursor the cursor of the next page, {@code null} on the last page
+ */
+public record HistoricalStatePage(List<HistoricalState> items, String nextCursor) {
+}
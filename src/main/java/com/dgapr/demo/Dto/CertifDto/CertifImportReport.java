@@ -0,0 +1,20 @@
+package com.dgapr.demo.Dto.CertifDto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk certificate import: how many rows were read and inserted, plus one entry per rejected row.
+ *
+ * @param received the number of rows read
+ * @param imported the number of certificates inserted
+ * @param errors   the rejected rows, in input order
+ */
+public record CertifImportReport(int received, int imported, List<RowError> errors) {
+
+    /**
+     * @param row        1-based position of the row in the input (header excluded)
+     * @param commonName the common name of the row, if any
+     * @param message    why the row was rejected
+     */
+    public record RowError(int row, String commonName, String message) { }
+}
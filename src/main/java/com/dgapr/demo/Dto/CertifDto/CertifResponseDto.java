@@ -14,6 +14,7 @@ public class CertifResponseDto {
     private String commonName;
     private LocalDate creationDate;
     private LocalDate expirationDate;
+    private Long version;
 
     // No-args constructor
     public CertifResponseDto() {
@@ -71,6 +72,10 @@ public class CertifResponseDto {
         return expirationDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // Setters
     public void setId(Integer id) {
         this.id = id;
@@ -108,6 +113,10 @@ public class CertifResponseDto {
         this.expirationDate = expirationDate;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // toString() method
     @Override
     public String toString() {
@@ -121,6 +130,7 @@ public class CertifResponseDto {
                ", commonName='" + commonName + '\'' +
                ", creationDate=" + creationDate +
                ", expirationDate=" + expirationDate +
+               ", version=" + version +
                '}';
     }
 
@@ -138,12 +148,13 @@ public class CertifResponseDto {
                Objects.equals(organizationalUnit, that.organizationalUnit) &&
                Objects.equals(commonName, that.commonName) &&
                Objects.equals(creationDate, that.creationDate) &&
-               Objects.equals(expirationDate, that.expirationDate);
+               Objects.equals(expirationDate, that.expirationDate) &&
+               Objects.equals(version, that.version);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(id, idDemand, demandeName, model, type, 
-                          organizationalUnit, commonName, creationDate, expirationDate);
+                          organizationalUnit, commonName, creationDate, expirationDate, version);
     }
 }
\ No newline at end of file
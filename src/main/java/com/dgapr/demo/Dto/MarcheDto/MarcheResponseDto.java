@@ -0,0 +1,24 @@
+package com.dgapr.demo.Dto.MarcheDto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class MarcheResponseDto {
+
+    private Long id;
+    private String titre_marche;
+    private String id_matricule;
+    private String societe;
+    private LocalDate date_ordre_service;
+    private LocalDate date_execution;
+    private LocalDate date_reception;
+    private Integer garantie_duree;
+    private String garantie_unite;
+    private LocalDate warranty_end;
+    private Long version;
+
+}
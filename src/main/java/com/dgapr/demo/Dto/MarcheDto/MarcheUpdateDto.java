@@ -0,0 +1,25 @@
+package com.dgapr.demo.Dto.MarcheDto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * The editable fields of a marché, target of the JSON Merge Patch applied by
+ * {@code PATCH /api/marches/{id}}.
+ */
+@Getter
+@Setter
+public class MarcheUpdateDto {
+
+    private String titre_marche;
+    private String id_matricule;
+    private String societe;
+    private LocalDate date_ordre_service;
+    private LocalDate date_execution;
+    private LocalDate date_reception;
+    private Integer garantie_duree;
+    private String garantie_unite;
+
+}
@@ -0,0 +1,14 @@
+package com.dgapr.demo.Dto.MarcheDto;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of a {@link com.dgapr.demo.Model.Marche} its materiels' warranty end is derived from,
+ * loaded without materialising the entity.
+ *
+ * @param id             the marché id
+ * @param date_reception the reception date, start of the materiels' own warranties
+ * @param warranty_end   the marché's warranty end, inherited by materiels without their own warranty
+ */
+public record MarcheWarrantyBasis(Long id, LocalDate date_reception, LocalDate warranty_end) {
+}
@@ -8,7 +8,7 @@ public class MaterielDto {
     private String emplacement;
     private Integer garantie_duree;
     private String garantie_unite;
-    private long marcheId; // ID of the associated Marche entity
+    private Long marcheId; // ID of the associated Marche entity
    
     
 
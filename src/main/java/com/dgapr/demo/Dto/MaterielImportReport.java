@@ -0,0 +1,20 @@
+package com.dgapr.demo.Dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk materiel import: how many rows were read and inserted, plus one entry per rejected row.
+ *
+ * @param received the number of data rows read
+ * @param imported the number of rows inserted
+ * @param errors   the rejected rows, in input order
+ */
+public record MaterielImportReport(int received, int imported, List<RowError> errors) {
+
+    /**
+     * @param row          1-based position of the row in the input (data rows only, header excluded)
+     * @param numero_serie the serial number of the row, if any
+     * @param message      why the row was rejected
+     */
+    public record RowError(int row, String numero_serie, String message) { }
+}
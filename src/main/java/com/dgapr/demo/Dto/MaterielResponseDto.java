@@ -0,0 +1,61 @@
+package com.dgapr.demo.Dto;
+
+import com.dgapr.demo.Dto.MarcheDto.MarcheResponseDto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Read model for {@link com.dgapr.demo.Model.Materiel}.
+ *
+ * <p>Listings carry only the owning marché's id and title, filled in by a single
+ * projection query. The full {@link MarcheResponseDto} is only set when the caller asks for
+ * it ({@code expand=marche}), in which case the marché is loaded with a fetch join.</p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MaterielResponseDto {
+
+    private Long id;
+    private String type_equipement;
+    private String gamme;
+    private String numero_serie;
+    private String emplacement;
+    private Integer garantie_duree;
+    private String garantie_unite;
+    private LocalDate warranty_end;
+    private Long version;
+    private Long marcheId;
+    private String titre_marche;
+    private MarcheResponseDto marche;
+    /** Version of the owning marché, part of the ETag since {@code titre_marche} comes from it. */
+    @JsonIgnore
+    private Long marcheVersion;
+
+    /**
+     * Constructor used by the JPQL projections in {@link com.dgapr.demo.Repository.MaterielRepository}.
+     */
+    public MaterielResponseDto(Long id, String type_equipement, String gamme, String numero_serie,
+                               String emplacement, Integer garantie_duree, String garantie_unite,
+                               LocalDate warranty_end, Long version, Long marcheId, String titre_marche,
+                               Long marcheVersion) {
+        this.id = id;
+        this.type_equipement = type_equipement;
+        this.gamme = gamme;
+        this.numero_serie = numero_serie;
+        this.emplacement = emplacement;
+        this.garantie_duree = garantie_duree;
+        this.garantie_unite = garantie_unite;
+        this.warranty_end = warranty_end;
+        this.version = version;
+        this.marcheId = marcheId;
+        this.titre_marche = titre_marche;
+        this.marcheVersion = marcheVersion;
+    }
+}
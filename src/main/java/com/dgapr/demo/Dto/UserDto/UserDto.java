@@ -2,6 +2,7 @@ package com.dgapr.demo.Dto.UserDto;
 
 import com.dgapr.demo.Model.User.Role;
 import com.dgapr.demo.Model.User.UserStatu;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -25,4 +26,7 @@ public class UserDto {
     private Instant updatedAt = Instant.now();
     private String updatedBy;
     private Role role;
+    /** Version after the last write, returned to clients for their next {@code If-Match}; ignored on input. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
\ No newline at end of file
@@ -24,5 +24,6 @@ public class UserResponseDto {
     private Instant updatedAt = Instant.now();
     private String updatedBy;
     private Role role;
+    private Long version;
 
 }
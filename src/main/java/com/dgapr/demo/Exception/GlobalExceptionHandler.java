@@ -1,5 +1,6 @@
 package com.dgapr.demo.Exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -65,6 +66,42 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Handles VersionConflictException, returning a 409 Conflict status.
+     * The client sent an {@code If-Match} version that is no longer the stored one; the body carries the
+     * current version so the client can reload and retry.
+     *
+     * @param ex The VersionConflictException caught.
+     * @return A ResponseEntity with a 409 Conflict status, error details and the current version.
+     */
+    @ExceptionHandler(com.dgapr.demo.Exception.VersionConflictException.class)
+    public ResponseEntity<Object> handleVersionConflictException(com.dgapr.demo.Exception.VersionConflictException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now().toString());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", HttpStatus.CONFLICT.getReasonPhrase());
+        body.put("message", ex.getMessage());
+        body.put("currentVersion", ex.getCurrentVersion());
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles optimistic locking failures raised by Hibernate's version check, returning a 409 Conflict status.
+     * This happens when a concurrent update commits between the read and the write of the same entity.
+     *
+     * @param ex The OptimisticLockingFailureException caught.
+     * @return A ResponseEntity with a 409 Conflict status and error details.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now().toString());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", HttpStatus.CONFLICT.getReasonPhrase());
+        body.put("message", "The resource was modified by another user. Reload it and retry.");
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles all uncaught exceptions that are not specifically handled by other exception handlers.
      *
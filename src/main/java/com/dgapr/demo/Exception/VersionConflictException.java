@@ -0,0 +1,45 @@
+package com.dgapr.demo.Exception;
+
+/**
+ * Thrown when an update was made against a stale version of an entity: the version given by the
+ * client ({@code If-Match}) no longer matches the stored one, because someone else updated it since
+ * it was read. Mapped to 409 Conflict by {@link GlobalExceptionHandler}.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    /**
+     * @param entity         the entity name, for the message
+     * @param id             the entity id, for the message
+     * @param expected       the version the client based its update on
+     * @param currentVersion the version currently stored
+     */
+    public VersionConflictException(String entity, Object id, Long expected, Long currentVersion) {
+        super(String.format("%s %s was modified by another user (version %d, current version %d). Reload it and retry.",
+                entity, id, expected, currentVersion));
+        this.currentVersion = currentVersion;
+    }
+
+    /**
+     * Checks the version a client based its update on against the stored one.
+     *
+     * @param entity   the entity name, for the message
+     * @param id       the entity id, for the message
+     * @param expected the version from {@code If-Match}, or {@code null} if the client sent none
+     * @param current  the stored version
+     * @throws VersionConflictException if {@code expected} is given and differs from {@code current}
+     */
+    public static void check(String entity, Object id, Long expected, Long current) {
+        if (expected != null && !expected.equals(current)) {
+            throw new VersionConflictException(entity, id, expected, current);
+        }
+    }
+
+    /**
+     * @return the version currently stored
+     */
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,40 @@
+package com.dgapr.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Number of audit entries per user, day (UTC), table and operation, kept up to date by
+ * {@link com.dgapr.demo.Audit.AuditActivitySink} as entries are relayed, so activity reports read a
+ * few rows instead of aggregating {@link AuditLog}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "audit_activity",
+       uniqueConstraints = {@UniqueConstraint(columnNames = {"modified_by", "activity_day", "table_name", "operation"})},
+       indexes = @Index(name = "idx_audit_activity_day", columnList = "activity_day"))
+public class AuditActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "modified_by", nullable = false)
+    private String modifiedBy;
+
+    @Column(name = "activity_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    @Column(name = "operation", nullable = false)
+    private String operation;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+}
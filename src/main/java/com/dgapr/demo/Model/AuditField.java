@@ -0,0 +1,33 @@
+package com.dgapr.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Dictionary of the field names found in audit details: encoded details refer to fields by this
+ * id instead of repeating their names. The pair (table, field) is unique.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "audit_field",
+       uniqueConstraints = {@UniqueConstraint(columnNames = {"table_name", "field_name"})})
+public class AuditField {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    /**
+     * The audited table the field belongs to.
+     */
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    /**
+     * The field (entity property) name.
+     */
+    @Column(name = "field_name", nullable = false)
+    private String fieldName;
+}
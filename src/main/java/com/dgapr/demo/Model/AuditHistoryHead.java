@@ -0,0 +1,49 @@
+package com.dgapr.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Latest known state of an audited row, kept by {@link com.dgapr.demo.Audit.AuditHistorySink} so that
+ * applying a change never requires replaying the row's history. Created from the row's creation or
+ * from its baseline ({@link com.dgapr.demo.Audit.AuditHistoryBaseline}). The pair (table, row) is unique.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "audit_history_head",
+       uniqueConstraints = {@UniqueConstraint(columnNames = {"table_name", "row_id"})})
+public class AuditHistoryHead {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    @Column(name = "row_id", nullable = false)
+    private String rowId;
+
+    /**
+     * The state, encoded by {@link com.dgapr.demo.Audit.AuditDetailsCodec} as a snapshot.
+     */
+    @Lob
+    @Column(name = "state_data", nullable = false)
+    private byte[] stateData;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    /**
+     * Changes applied since the latest {@link AuditSnapshot} of the row.
+     */
+    @Column(name = "changes_since_snapshot", nullable = false)
+    private int changesSinceSnapshot;
+
+    @Column(name = "last_change", nullable = false)
+    private Instant lastChange;
+}
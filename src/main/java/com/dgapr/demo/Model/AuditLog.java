@@ -13,7 +13,9 @@ import java.time.Instant;
  * who performed it, when it occurred, and any relevant details (changes old/new values).
  *
  * <p>This entity is mapped to the "audit_log" table in the database and includes
- * various indexes to optimize query performance for audit trail analysis.</p>
+ * various indexes to optimize query performance for audit trail analysis. The table is
+ * partitioned by month on {@link #timestamp} and old months are moved to compressed archives,
+ * see {@link com.dgapr.demo.Audit.AuditPartitionManager}.</p>
  */
 @Getter
 @Setter
@@ -24,7 +26,12 @@ import java.time.Instant;
                 @Index(name = "idx_audit_table_rowid",   columnList = "tableName, rowId"),
                 @Index(name = "idx_audit_table_ts",      columnList = "tableName, timestamp"),
                 @Index(name = "idx_audit_rowid",         columnList = "rowId"),
-                @Index(name = "idx_audit_modified_by",   columnList = "modifiedBy")
+                @Index(name = "idx_audit_modified_by",   columnList = "modifiedBy"),
+                // keyset pagination of the audit query API; on SQL Server the clustered key is carried by
+                // every non-clustered index, so these are ordered by (…, timestamp, auditId). Once the table
+                // is partitioned (AuditPartitionManager) the clustered key is (timestamp, auditId) itself.
+                @Index(name = "idx_audit_ts",            columnList = "timestamp"),
+                @Index(name = "idx_audit_modified_by_ts", columnList = "modifiedBy, timestamp")
         }
 )
 public class AuditLog {
@@ -64,10 +71,26 @@ public class AuditLog {
     private Instant timestamp;
 
     /**
-     * Additional details about the audited operation, typically a JSON string.
-     * For "UPDATE" operations, this might contain a diff of old and new values.
-     * Limited to 2000 characters.
+     * Details of entries written before {@link #detailsData} existed, as JSON text cut at 2000 characters.
+     * New entries leave it {@code null}.
      */
     @Column(length = 2000)
     private String details;
+
+    /**
+     * Additional details about the audited operation (entity snapshot, or old/new values of the changed
+     * fields), in the compact binary format of {@link com.dgapr.demo.Audit.AuditDetailsCodec}, which
+     * also turns it back into JSON. Not truncated; {@code varbinary(max)} on SQL Server.
+     */
+    @Lob
+    @Column(name = "details_data")
+    private byte[] detailsData;
+
+    /**
+     * The id the entry had in {@code audit_outbox}. For a given row it increases in commit order, so
+     * it orders the row's entries exactly, where timestamps may tie. {@code null} for entries written
+     * before the outbox.
+     */
+    @Column(name = "outbox_id")
+    private Long outboxId;
 }
@@ -0,0 +1,48 @@
+package com.dgapr.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An audit entry written in the same transaction as the change it describes, waiting to be moved to
+ * {@link AuditLog} by {@link com.dgapr.demo.Audit.AuditOutboxRelay}. Rows only live until the next
+ * relay run, so the table has no secondary index.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "audit_outbox")
+public class AuditOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    @Column(name = "row_id", nullable = false)
+    private String rowId;
+
+    @Column(name = "operation", nullable = false)
+    private String operation;
+
+    @Column(name = "modified_by", nullable = false)
+    private String modifiedBy;
+
+    /**
+     * When the change was made; becomes {@link AuditLog#getTimestamp()}.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * The details, already encoded by {@link com.dgapr.demo.Audit.AuditDetailsCodec}.
+     */
+    @Lob
+    @Column(name = "details_data")
+    private byte[] detailsData;
+}
@@ -0,0 +1,60 @@
+package com.dgapr.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Full state of an audited row at a point in its history, written by
+ * {@link com.dgapr.demo.Audit.AuditHistorySink} on creation, on deletion and every
+ * {@code audit.history.snapshot-every} changes in between, or by
+ * {@link com.dgapr.demo.Audit.AuditHistoryBaseline} from the live row when its history starts. The
+ * state at any instant is the latest snapshot up to that instant plus the (few) {@link AuditLog}
+ * diffs after it.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "audit_snapshot",
+       indexes = @Index(name = "idx_audit_snapshot_row", columnList = "table_name, row_id, as_of"))
+public class AuditSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    @Column(name = "row_id", nullable = false)
+    private String rowId;
+
+    /**
+     * Timestamp of the last change included in the state; for a baseline, when it was taken.
+     */
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+
+    /**
+     * {@link AuditLog#getOutboxId() Outbox id} of the last change included in the state: the diffs to
+     * apply are the row's entries after it. {@code 0} for a baseline, whose included changes are not
+     * known: all the row's entries are applied again, which ends in the same state.
+     */
+    @Column(name = "last_outbox_id")
+    private Long lastOutboxId;
+
+    /**
+     * The state, encoded by {@link com.dgapr.demo.Audit.AuditDetailsCodec} as a snapshot.
+     */
+    @Lob
+    @Column(name = "state_data", nullable = false)
+    private byte[] stateData;
+
+    /**
+     * Whether the row had been hard-deleted at {@link #asOf}.
+     */
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+}
@@ -2,15 +2,24 @@ package com.dgapr.demo.Model;
 
 
 
+import com.dgapr.demo.Audit.AuditListener;
+import com.dgapr.demo.Audit.AuditedFields;
+import com.dgapr.demo.Util.WarrantyCalculator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 import java.util.List;
 
 
 
 @Entity
-@Table(name = "marche")
-public class Marche {
+@DynamicUpdate
+@Table(name = "marche", indexes = @Index(name = "idx_marche_warranty_end", columnList = "warranty_end"))
+@EntityListeners(AuditListener.class)
+// warranty_end is derived from the audited reception date and warranty
+@AuditedFields({"titre_marche", "id_matricule", "societe", "date_ordre_service", "date_execution",
+        "date_reception", "garantie_duree", "garantie_unite"})
+public class Marche implements Identifiable<Long> {
   
 
 
@@ -28,10 +37,21 @@ public class Marche {
     private Integer garantie_duree;
     private String garantie_unite;
 
-    
+    /**
+     * End of the warranty, derived from {@code date_reception} + {@code garantie_duree} {@code garantie_unite}
+     * on every write; {@code null} when those are missing or the unit is not recognised.
+     */
+    @Column(name = "warranty_end")
+    private LocalDate warranty_end;
+
+    // row version, incremented by Hibernate on every update; source of the ETag
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 
 
     // Getters and Setters
+    @Override
     public Long getId() {
         return id;
     }
@@ -104,6 +124,23 @@ public class Marche {
         this.garantie_unite = garantie_unite;
     }
 
+    public LocalDate getWarranty_end() {
+        return warranty_end;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Recomputes {@link #warranty_end} from the reception date and the warranty duration.
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateWarrantyEnd() {
+        this.warranty_end = WarrantyCalculator.warrantyEnd(date_reception, garantie_duree, garantie_unite);
+    }
+
     
 
    
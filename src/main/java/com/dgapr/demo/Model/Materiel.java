@@ -1,11 +1,22 @@
 package com.dgapr.demo.Model;
 
+import com.dgapr.demo.Audit.AuditListener;
+import com.dgapr.demo.Audit.AuditedFields;
+import com.dgapr.demo.Util.WarrantyCalculator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.LocalDate;
 
 
 @Entity
-public class Materiel {
+@DynamicUpdate
+@Table(name = "materiel", indexes = @Index(name = "idx_materiel_warranty_end", columnList = "warranty_end"))
+@EntityListeners(AuditListener.class)
+// warranty_end is derived from the audited warranty and marché
+@AuditedFields({"type_equipement", "gamme", "numero_serie", "emplacement", "garantie_duree", "garantie_unite",
+        "marche"})
+public class Materiel implements Identifiable<Long> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,14 +28,23 @@ public class Materiel {
     private String emplacement;
     private Integer garantie_duree;
     private String garantie_unite;
-    
 
-    @ManyToOne
+    // derived on write: own warranty counted from the marché's reception, else the marché's warranty end
+    @Column(name = "warranty_end")
+    private LocalDate warranty_end;
+
+    // row version, incremented by Hibernate on every update; source of the ETag
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "marche_id")
     private Marche marche; // relation to Marche entity
 
     // getters and setters
 
+    @Override
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -48,6 +68,35 @@ public class Materiel {
 
     public String getGarantie_unite() { return garantie_unite; }
     public void setGarantie_unite(String garantie_unite) { this.garantie_unite = garantie_unite; }
+
+    public LocalDate getWarranty_end() { return warranty_end; }
+
+    public Long getVersion() { return version; }
+
+    @PrePersist
+    @PreUpdate
+    public void updateWarrantyEnd() {
+        this.warranty_end = warrantyEnd(marche, garantie_duree, garantie_unite);
+    }
+
+    /**
+     * Warranty end of a materiel: its own duration counted from the marché's reception date when it has one,
+     * otherwise the marché's own warranty end.
+     */
+    public static LocalDate warrantyEnd(Marche marche, Integer garantie_duree, String garantie_unite) {
+        if (marche == null) return null;
+        return warrantyEnd(marche.getDate_reception(), marche.getWarranty_end(), garantie_duree, garantie_unite);
+    }
+
+    /**
+     * Same as {@link #warrantyEnd(Marche, Integer, String)} from the marché's reception date and warranty end,
+     * for callers that only loaded those columns.
+     */
+    public static LocalDate warrantyEnd(LocalDate marcheReception, LocalDate marcheWarrantyEnd,
+                                        Integer garantie_duree, String garantie_unite) {
+        if (garantie_duree == null) return marcheWarrantyEnd;
+        return WarrantyCalculator.warrantyEnd(marcheReception, garantie_duree, garantie_unite);
+    }
     
     
     
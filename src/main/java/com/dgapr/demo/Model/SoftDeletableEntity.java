@@ -2,6 +2,7 @@ package com.dgapr.demo.Model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -14,6 +15,9 @@ import lombok.Setter;
  *
  * <p>The presence of the {@code isDeleted} field allows the {@link com.dgapr.demo.Audit.AuditListener}
  * to differentiate between a standard entity update and a logical soft-delete operation.</p>
+ *
+ * <p>The {@code version} column is incremented by Hibernate on every update; it is the source of
+ * the ETags returned by the read endpoints.</p>
  */
 @Getter
 @Setter
@@ -26,4 +30,12 @@ public abstract class SoftDeletableEntity {
      */
     @Column(name = "Is_Deleted", nullable = false)
     private Boolean isDeleted = false;
+
+    /**
+     * Row version, managed by Hibernate ({@code @Version}). Existing rows start at 0.
+     * Left {@code null} on new instances so Spring Data still recognises them as new.
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 }
\ No newline at end of file
@@ -1,7 +1,22 @@
 package com.dgapr.demo.Model.User;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
 public enum Role {
     USER,
     ADMIN,
-    SUPER_ADMIN
+    SUPER_ADMIN;
+
+    /** Immutable authority list built once per role and shared by every authenticated request. */
+    private final List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + name()));
+
+    /**
+     * @return The Spring Security authorities ("ROLE_&lt;name&gt;") granted by this role.
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
 }
@@ -0,0 +1,52 @@
+package com.dgapr.demo.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Records that an alert was sent about a materiel's warranty, so each materiel is reported
+ * once per notification type. The pair (materiel, type) is unique.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "warranty_notification",
+       uniqueConstraints = {@UniqueConstraint(columnNames = {"materiel_id", "notification_type"})})
+public class WarrantyNotification implements Identifiable<Long> {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The ID of the materiel the alert was about.
+     */
+    @Column(name = "materiel_id", nullable = false)
+    private Long materielId;
+
+    /**
+     * The type of alert (e.g., "BEFORE_WARRANTY_END").
+     */
+    @Column(name = "notification_type", nullable = false)
+    private String notificationType;
+
+    /**
+     * The warranty end the alert was about.
+     */
+    @Column(name = "warranty_end", nullable = false)
+    private LocalDate warrantyEnd;
+
+    /**
+     * The date when the alert was sent.
+     */
+    @Column(name = "notified_at", nullable = false)
+    private LocalDate notifiedAt;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+}
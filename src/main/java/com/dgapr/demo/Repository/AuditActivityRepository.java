@@ -0,0 +1,43 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Dto.AuditDto.ActivitySummary;
+import com.dgapr.demo.Model.AuditActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AuditActivityRepository extends JpaRepository<AuditActivity, Long> {
+
+    /**
+     * Adds {@code count} to an existing counter.
+     *
+     * @return the number of counters updated: 0 if there is none yet for this key
+     */
+    @Modifying
+    @Query("UPDATE AuditActivity a SET a.entryCount = a.entryCount + :count " +
+            "WHERE a.modifiedBy = :user AND a.day = :day AND a.tableName = :table AND a.operation = :operation")
+    int increment(@Param("user") String user,
+                  @Param("day") LocalDate day,
+                  @Param("table") String table,
+                  @Param("operation") String operation,
+                  @Param("count") long count);
+
+    @Query("SELECT new com.dgapr.demo.Dto.AuditDto.ActivitySummary(a.modifiedBy, a.day, a.tableName, a.operation, a.entryCount) " +
+            "FROM AuditActivity a WHERE a.modifiedBy = :user AND a.day >= :from AND a.day <= :to " +
+            "ORDER BY a.day DESC, a.tableName, a.operation")
+    List<ActivitySummary> findByUser(@Param("user") String user,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Query("SELECT new com.dgapr.demo.Dto.AuditDto.ActivitySummary(a.modifiedBy, a.day, a.tableName, a.operation, a.entryCount) " +
+            "FROM AuditActivity a WHERE a.day >= :from AND a.day <= :to " +
+            "ORDER BY a.day DESC, a.modifiedBy, a.tableName, a.operation")
+    List<ActivitySummary> findAllUsers(@Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+}
@@ -0,0 +1,13 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Model.AuditField;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AuditFieldRepository extends JpaRepository<AuditField, Integer> {
+
+    Optional<AuditField> findByTableNameAndFieldName(String tableName, String fieldName);
+}
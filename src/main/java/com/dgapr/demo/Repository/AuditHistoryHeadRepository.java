@@ -0,0 +1,14 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Model.AuditHistoryHead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AuditHistoryHeadRepository extends JpaRepository<AuditHistoryHead, Long> {
+
+    List<AuditHistoryHead> findByTableNameAndRowIdIn(String tableName, Collection<String> rowIds);
+}
@@ -0,0 +1,29 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
+import com.dgapr.demo.Dto.AuditDto.AuditLogFilter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Keyset-paginated reads of {@code audit_log}, mixed into {@link AuditLogRepository}.
+ */
+public interface AuditLogQueries {
+
+    /**
+     * Returns the entries matching {@code filter}, newest first, ordered by {@code (timestamp, auditId)}
+     * descending and starting strictly after the given position.
+     *
+     * <p>Only the predicates of the criteria actually set are added, so each query can be served by the
+     * audit index on its leading column ({@code tableName}, {@code rowId}, {@code modifiedBy} or
+     * {@code timestamp}) and the keyset condition is a range on that index instead of an offset scan.</p>
+     *
+     * @param filter         the criteria
+     * @param afterTimestamp timestamp of the last entry of the previous page, or {@code null} for the first page
+     * @param afterId        audit id of the last entry of the previous page, ignored when {@code afterTimestamp} is {@code null}
+     * @param limit          the maximum number of entries to return
+     * @return the matching rows, with their details still encoded
+     */
+    List<AuditLogRow> findPage(AuditLogFilter filter, Instant afterTimestamp, Long afterId, int limit);
+}
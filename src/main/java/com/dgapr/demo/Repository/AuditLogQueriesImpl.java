@@ -0,0 +1,53 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Dto.AuditDto.AuditLogFilter;
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
+import com.dgapr.demo.Model.AuditLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria API implementation of {@link AuditLogQueries}.
+ */
+class AuditLogQueriesImpl implements AuditLogQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuditLogRow> findPage(AuditLogFilter filter, Instant afterTimestamp, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditLogRow> query = cb.createQuery(AuditLogRow.class);
+        Root<AuditLog> a = query.from(AuditLog.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.tableName() != null) predicates.add(cb.equal(a.get("tableName"), filter.tableName()));
+        if (filter.rowId() != null) predicates.add(cb.equal(a.get("rowId"), filter.rowId()));
+        if (filter.modifiedBy() != null) predicates.add(cb.equal(a.get("modifiedBy"), filter.modifiedBy()));
+        if (filter.operation() != null) predicates.add(cb.equal(a.get("operation"), filter.operation()));
+        if (filter.from() != null) predicates.add(cb.greaterThanOrEqualTo(a.get("timestamp"), filter.from()));
+        if (filter.to() != null) predicates.add(cb.lessThan(a.get("timestamp"), filter.to()));
+        if (afterTimestamp != null) {
+            // (timestamp, auditId) < (afterTimestamp, afterId), spelled out for SQL Server
+            predicates.add(cb.or(
+                    cb.lessThan(a.get("timestamp"), afterTimestamp),
+                    cb.and(cb.equal(a.get("timestamp"), afterTimestamp), cb.lessThan(a.get("auditId"), afterId))));
+        }
+
+        query.select(cb.construct(AuditLogRow.class,
+                        a.get("auditId"), a.get("tableName"), a.get("rowId"), a.get("operation"),
+                        a.get("modifiedBy"), a.get("timestamp"), a.get("details"), a.get("detailsData")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(a.get("timestamp")), cb.desc(a.get("auditId")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -1,6 +1,64 @@
 package com.dgapr.demo.Repository;
 
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
 import com.dgapr.demo.Model.AuditLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> { }
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, AuditLogQueries {
+
+    @Query("SELECT MIN(a.timestamp) FROM AuditLog a")
+    Instant findOldestTimestamp();
+
+    @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp < :to")
+    long countByTimestampRange(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Streams the entries of {@code [from, to)} newest first, as projections; the stream must be
+     * consumed inside a transaction and closed.
+     */
+    @Query("SELECT new com.dgapr.demo.Dto.AuditDto.AuditLogRow(a.auditId, a.tableName, a.rowId, a.operation, " +
+            "a.modifiedBy, a.timestamp, a.details, a.detailsData) FROM AuditLog a " +
+            "WHERE a.timestamp >= :from AND a.timestamp < :to ORDER BY a.timestamp DESC, a.auditId DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AuditLogRow> streamByTimestampRange(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * The entries of a row after the outbox id {@code afterOutboxId} and up to {@code at}, oldest first.
+     */
+    @Query("SELECT new com.dgapr.demo.Dto.AuditDto.AuditLogRow(a.auditId, a.tableName, a.rowId, a.operation, " +
+            "a.modifiedBy, a.timestamp, a.details, a.detailsData) FROM AuditLog a " +
+            "WHERE a.tableName = :table AND a.rowId = :rowId AND a.outboxId > :afterOutboxId AND a.timestamp <= :at " +
+            "ORDER BY a.outboxId")
+    List<AuditLogRow> findRowChanges(@Param("table") String table, @Param("rowId") String rowId,
+                                     @Param("afterOutboxId") Long afterOutboxId, @Param("at") Instant at);
+
+    /**
+     * For each of the given snapshots, the entries of its row after the last change it includes and up
+     * to {@code at}, by row, oldest first.
+     */
+    @Query("SELECT new com.dgapr.demo.Dto.AuditDto.AuditLogRow(a.auditId, a.tableName, a.rowId, a.operation, " +
+            "a.modifiedBy, a.timestamp, a.details, a.detailsData) FROM AuditLog a, AuditSnapshot s " +
+            "WHERE s.id IN :snapshotIds AND a.tableName = s.tableName AND a.rowId = s.rowId " +
+            "AND a.outboxId > s.lastOutboxId AND a.timestamp <= :at " +
+            "ORDER BY a.rowId, a.outboxId")
+    List<AuditLogRow> findChangesAfterSnapshots(@Param("snapshotIds") Collection<Long> snapshotIds,
+                                                @Param("at") Instant at);
+
+    /**
+     * Removes the entries of {@code [from, to)}; used when the table is not partitioned.
+     */
+    @Modifying
+    @Query("DELETE FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp < :to")
+    int deleteByTimestampRange(@Param("from") Instant from, @Param("to") Instant to);
+}
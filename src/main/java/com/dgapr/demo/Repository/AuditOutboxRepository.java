@@ -0,0 +1,39 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Model.AuditOutbox;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AuditOutboxRepository extends JpaRepository<AuditOutbox, Long> {
+
+    /**
+     * The oldest pending entries, locked until the end of the transaction so that concurrent relays
+     * (several instances) do not move them twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM AuditOutbox o ORDER BY o.id")
+    List<AuditOutbox> findOldest(Pageable pageable);
+
+    /**
+     * Copies entries to the audit log in one set-based statement; the details are already encoded.
+     */
+    @Modifying
+    @Query("INSERT INTO AuditLog (tableName, rowId, operation, modifiedBy, timestamp, detailsData, outboxId) " +
+            "SELECT o.tableName, o.rowId, o.operation, o.modifiedBy, o.createdAt, o.detailsData, o.id " +
+            "FROM AuditOutbox o WHERE o.id IN :ids")
+    int copyToAuditLog(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM AuditOutbox o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,36 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Model.AuditSnapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AuditSnapshotRepository extends JpaRepository<AuditSnapshot, Long> {
+
+    /**
+     * The latest snapshot of a row taken at or before {@code at}.
+     */
+    Optional<AuditSnapshot> findFirstByTableNameAndRowIdAndAsOfLessThanEqualOrderByAsOfDesc(
+            String tableName, String rowId, Instant at);
+
+    /**
+     * For each row of a table with a snapshot at or before {@code at}, the latest such snapshot,
+     * in row id order after {@code afterRowId}.
+     */
+    @Query("SELECT s FROM AuditSnapshot s " +
+            "WHERE s.tableName = :table AND s.rowId > :afterRowId " +
+            "AND s.asOf = (SELECT MAX(s2.asOf) FROM AuditSnapshot s2 " +
+            "              WHERE s2.tableName = s.tableName AND s2.rowId = s.rowId AND s2.asOf <= :at) " +
+            "ORDER BY s.rowId")
+    List<AuditSnapshot> findLatestPerRow(@Param("table") String table,
+                                         @Param("at") Instant at,
+                                         @Param("afterRowId") String afterRowId,
+                                         Pageable pageable);
+}
@@ -3,7 +3,21 @@ package com.dgapr.demo.Repository;
 import com.dgapr.demo.Model.Certificate.Certificate;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CertifRepository extends JpaRepository<Certificate, Integer>, JpaSpecificationExecutor<Certificate> {
 
+    @Query("SELECT c.commonName FROM Certificate c WHERE c.commonName IN :commonNames")
+    List<String> findExistingCommonNames(@Param("commonNames") Collection<String> commonNames);
+
+    /**
+     * Reads only the version of an active certificate, to answer conditional requests without loading it.
+     */
+    @Query("SELECT c.version FROM Certificate c WHERE c.id = :id AND c.isDeleted = false")
+    Optional<Long> findVersionById(@Param("id") Integer id);
 }
\ No newline at end of file
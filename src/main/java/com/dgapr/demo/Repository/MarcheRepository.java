@@ -2,21 +2,55 @@ package com.dgapr.demo.Repository;
 
 
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.dgapr.demo.Dto.MarcheDto.MarcheWarrantyBasis;
 import com.dgapr.demo.Model.Marche;
 
 @Repository
 
 
-public interface MarcheRepository extends JpaRepository<Marche, Long> {
-     
-    @Query("SELECT DISTINCT m.societe FROM Marche m ")
-    List<String> findDistinctSocietes();
+public interface MarcheRepository extends JpaRepository<Marche, Long>, JpaSpecificationExecutor<Marche> {
+
+    /**
+     * JPQL condition on alias {@code m}: its {@code garantie_unite} is one that
+     * {@link com.dgapr.demo.Util.WarrantyCalculator#parseUnit} recognises.
+     */
+    String KNOWN_UNIT = "(LOWER(TRIM(m.garantie_unite)) LIKE 'jour%' OR LOWER(TRIM(m.garantie_unite)) LIKE 'day%' " +
+            "OR LOWER(TRIM(m.garantie_unite)) LIKE 'semaine%' OR LOWER(TRIM(m.garantie_unite)) LIKE 'week%' " +
+            "OR LOWER(TRIM(m.garantie_unite)) LIKE 'mois%' OR LOWER(TRIM(m.garantie_unite)) LIKE 'month%' " +
+            "OR LOWER(TRIM(m.garantie_unite)) LIKE 'an%' OR LOWER(TRIM(m.garantie_unite)) LIKE 'year%')";
+
+    /**
+     * Loads, for the given ids that exist, the columns materiel warranties are derived from.
+     */
+    @Query("SELECT new com.dgapr.demo.Dto.MarcheDto.MarcheWarrantyBasis(m.id, m.date_reception, m.warranty_end) " +
+            "FROM Marche m WHERE m.id IN :ids")
+    List<MarcheWarrantyBasis> findWarrantyBases(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads only the version of a marché, to answer conditional requests without loading it.
+     */
+    @Query("SELECT m.version FROM Marche m WHERE m.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Marchés whose warranty end was never derived (rows written before the column existed) and can be,
+     * in id order. Rows missing an input or with an unknown unit are left out, so they are not read again
+     * on every start.
+     */
+    @Query("SELECT m FROM Marche m WHERE m.warranty_end IS NULL AND m.garantie_duree IS NOT NULL " +
+            "AND m.date_reception IS NOT NULL AND " + KNOWN_UNIT + " AND m.id > :afterId ORDER BY m.id")
+    List<Marche> findWithoutWarrantyEnd(@Param("afterId") Long afterId, Pageable pageable);
     
 
 
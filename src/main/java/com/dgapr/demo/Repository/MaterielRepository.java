@@ -2,26 +2,125 @@ package com.dgapr.demo.Repository;
 
 
 
-import com.dgapr.demo.Model.Marche;
+import com.dgapr.demo.Dto.MaterielResponseDto;
 import com.dgapr.demo.Model.Materiel;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
 
 
 public interface MaterielRepository extends JpaRepository<Materiel, Long> {
- 
-
-    List<Materiel> findByMarcheId(Long marcheId);
-    
-    @Query("SELECT DISTINCT m.type_equipement FROM Materiel m")
-    List<String> findDistinctTypeEquipement();
-    @Query("SELECT DISTINCT m.gamme FROM Materiel m")
-    List<String> findDistinctGamme();
+
+    /**
+     * Shared select list of the materiel projections: the materiel columns plus the owning
+     * marché's id and title, read through a single join.
+     */
+    String PROJECTION = "SELECT new com.dgapr.demo.Dto.MaterielResponseDto(" +
+            "m.id, m.type_equipement, m.gamme, m.numero_serie, m.emplacement, " +
+            "m.garantie_duree, m.garantie_unite, m.warranty_end, m.version, ma.id, ma.titre_marche, ma.version) " +
+            "FROM Materiel m LEFT JOIN m.marche ma ";
+
+    @Query(PROJECTION + "ORDER BY m.id")
+    List<MaterielResponseDto> findAllProjected();
+
+    @Query(PROJECTION + "WHERE m.id = :id")
+    Optional<MaterielResponseDto> findProjectedById(@Param("id") Long id);
+
+    @Query(PROJECTION + "WHERE ma.id = :marcheId ORDER BY m.id")
+    List<MaterielResponseDto> findProjectedByMarcheId(@Param("marcheId") Long marcheId);
+
+    /**
+     * Loads materiels together with their marché in one statement, for callers that need the full parent.
+     */
+    @EntityGraph(attributePaths = "marche")
+    @Query("SELECT m FROM Materiel m ORDER BY m.id")
+    List<Materiel> findAllWithMarche();
+
+    @EntityGraph(attributePaths = "marche")
+    @Query("SELECT m FROM Materiel m WHERE m.marche.id = :marcheId ORDER BY m.id")
+    List<Materiel> findWithMarcheByMarcheId(@Param("marcheId") Long marcheId);
+
+    /**
+     * Reads only the versions of a materiel and of its marché (whose title the projections embed),
+     * to answer conditional requests without loading either.
+     */
+    @Query("SELECT m.version AS version, ma.version AS marcheVersion FROM Materiel m LEFT JOIN m.marche ma WHERE m.id = :id")
+    Optional<Versions> findVersionsById(@Param("id") Long id);
+
+    /**
+     * Versions read by {@link #findVersionsById}; {@code marcheVersion} is {@code null} without a marché.
+     */
+    interface Versions {
+        Long getVersion();
+
+        Long getMarcheVersion();
+    }
+
+    @Query("SELECT m.numero_serie FROM Materiel m WHERE m.numero_serie IN :serials")
+    List<String> findExistingNumeroSeries(@Param("serials") Collection<String> serials);
+
+    /**
+     * Materiels whose warranty ends within {@code [from, to]}, through the {@code warranty_end} index.
+     */
+    @Query(value = PROJECTION + "WHERE m.warranty_end BETWEEN :from AND :to ORDER BY m.warranty_end, m.id",
+            countQuery = "SELECT COUNT(m) FROM Materiel m WHERE m.warranty_end BETWEEN :from AND :to")
+    Page<MaterielResponseDto> findProjectedByWarrantyEndBetween(@Param("from") LocalDate from,
+                                                                @Param("to") LocalDate to,
+                                                                Pageable pageable);
+
+    /**
+     * Next chunk (keyset on id) of materiels whose warranty ends within {@code [from, to]} and that
+     * were not yet alerted about with {@code notificationType}.
+     */
+    @Query(PROJECTION + "WHERE m.warranty_end BETWEEN :from AND :to AND m.id > :afterId " +
+            "AND NOT EXISTS (SELECT 1 FROM WarrantyNotification n " +
+            "WHERE n.materielId = m.id AND n.notificationType = :notificationType) " +
+            "ORDER BY m.id")
+    List<MaterielResponseDto> findWarrantyEndingNotNotified(@Param("from") LocalDate from,
+                                                           @Param("to") LocalDate to,
+                                                           @Param("notificationType") String notificationType,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    /**
+     * Propagates a marché's warranty end to its materiels that have no warranty of their own, in one statement.
+     * {@code VERSIONED} makes Hibernate increment their version, so their ETags change too.
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Materiel m SET m.warranty_end = :warrantyEnd WHERE m.marche.id = :marcheId AND m.garantie_duree IS NULL")
+    int inheritWarrantyEnd(@Param("marcheId") Long marcheId, @Param("warrantyEnd") LocalDate warrantyEnd);
+
+    /**
+     * Materiels of a marché with their own warranty, whose end depends on the marché's reception date.
+     */
+    @Query("SELECT m FROM Materiel m WHERE m.marche.id = :marcheId AND m.garantie_duree IS NOT NULL")
+    List<Materiel> findWithOwnWarrantyByMarcheId(@Param("marcheId") Long marcheId);
+
+    /**
+     * Materiels whose warranty end was never derived (rows written before the column existed) and can be,
+     * in id order: with a marché, and either their own duration in a known unit and the marché's reception
+     * date, or no duration of their own and the marché's warranty end. Other rows are left out, so they are
+     * not read again on every start.
+     */
+    @EntityGraph(attributePaths = "marche")
+    @Query("SELECT m FROM Materiel m JOIN m.marche ma WHERE m.warranty_end IS NULL AND m.id > :afterId " +
+            "AND ((m.garantie_duree IS NULL AND ma.warranty_end IS NOT NULL) " +
+            "OR (m.garantie_duree IS NOT NULL AND ma.date_reception IS NOT NULL AND " + MarcheRepository.KNOWN_UNIT + ")) " +
+            "ORDER BY m.id")
+    List<Materiel> findWithoutWarrantyEnd(@Param("afterId") Long afterId, Pageable pageable);
+
   
 
 }
 
-
@@ -1,9 +1,16 @@
 package com.dgapr.demo.Repository;
 
+import com.dgapr.demo.Model.User.Role;
 import com.dgapr.demo.Model.User.User;
+import com.dgapr.demo.Model.User.UserStatu;
+import com.dgapr.demo.Security.AuthenticatedPrincipal;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Import this
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,4 +24,27 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
     Boolean existsByEmail(String email);
     Boolean existsByIdNumber(String idNumber);
     Optional<User> findByUsername(String username);
+
+    /**
+     * Loads only the fields needed to authenticate a token, without materialising the entity
+     * (and therefore without triggering entity listeners).
+     *
+     * @param username the token subject
+     * @return the principal projection, or empty if no such user exists
+     */
+    @Query("SELECT new com.dgapr.demo.Security.AuthenticatedPrincipal(u.id, u.username, u.role, u.tokenVersion) " +
+            "FROM User u WHERE u.username = :username")
+    Optional<AuthenticatedPrincipal> findPrincipalByUsername(@Param("username") String username);
+
+    /**
+     * Reads only the version of a user, to answer conditional requests without loading the entity.
+     */
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * @return the distinct e-mail addresses of the users with one of the given roles and status
+     */
+    @Query("SELECT DISTINCT u.email FROM User u WHERE u.role IN :roles AND u.status = :status")
+    List<String> findEmailsByRolesAndStatus(@Param("roles") Collection<Role> roles, @Param("status") UserStatu status);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Model.WarrantyNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WarrantyNotificationRepository extends JpaRepository<WarrantyNotification, Long> {
+}
@@ -0,0 +1,43 @@
+package com.dgapr.demo.Security;
+
+import com.dgapr.demo.Model.User.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Lightweight, immutable principal placed in the security context by {@link JwtAuthenticationFilter}.
+ *
+ * <p>It carries only what request handling needs (id, username, role and the token version the
+ * token was checked against) instead of the full {@link com.dgapr.demo.Model.User.User} entity.
+ * Authorities come from the per-{@link Role} constant list, so no collection is allocated per
+ * request. It also implements {@link UserDetails}, so {@code @AuthenticationPrincipal UserDetails}
+ * parameters keep working.</p>
+ *
+ * @param id           The user's primary key.
+ * @param username     The user's (lower-cased) username.
+ * @param role         The user's role.
+ * @param tokenVersion The user's current token version.
+ */
+public record AuthenticatedPrincipal(UUID id, String username, Role role, Long tokenVersion) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    /**
+     * Credentials are never kept in the security context of a token-authenticated request.
+     */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
@@ -1,7 +1,7 @@
 package com.dgapr.demo.Security;
 
 import com.dgapr.demo.Repository.UserRepository;
-import com.dgapr.demo.Service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,19 +10,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Spring Security filter that:
  *  1. Reads the Authorization header
  *  2. Validates the JWT
- *  3. Loads the UserDetails if the token version matches
+ *  3. Loads the principal if the token version matches
  *  4. Populates the SecurityContext
  */
 /**
@@ -38,18 +39,18 @@ import java.io.IOException;
  * token version with the token version stored for the user in the database. This mechanism allows
  * for immediate token revocation (e.g., when an administrator explicitly revokes their tokens).
  * If the versions do not match, the token is considered revoked and authentication is denied.</li>
- * <li>**Loading User Details:** If the token is valid and not revoked, it loads the user's
- * {@link UserDetails} using {@link CustomUserDetailsService}.</li>
- * <li>**Populating the Security Context:** Finally, it creates an {@link UsernamePasswordAuthenticationToken}
- * and sets it in the {@link SecurityContextHolder}, thereby authenticating the user for the current request
- * within Spring Security's framework.</li>
+ * <li>**Loading the Principal:** The version check reads an {@link AuthenticatedPrincipal} projection
+ * (id, username, role, token version) rather than the full user entity.</li>
+ * <li>**Populating the Security Context:** Finally, it sets an authenticated {@link UsernamePasswordAuthenticationToken}
+ * in the {@link SecurityContextHolder}. The token is built once per user and token version and then reused,
+ * with the role's shared authority list, so steady-state requests allocate no new authentication objects.</li>
  * </ol>
  *
  * <p>This filter plays a crucial role in the stateless authentication flow of the application,
  * ensuring that only requests with valid and active JWTs are processed as authenticated.</p>
  *
  * @see JwtTokenProvider
- * @see CustomUserDetailsService
+ * @see AuthenticatedPrincipal
  * @see UserRepository
  * @see SecurityContextHolder
  */
@@ -59,9 +60,15 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final com.dgapr.demo.Security.JwtTokenProvider tokenProvider;
-    private final CustomUserDetailsService userDetailsService;
     private final UserRepository userRepository;
 
+    /**
+     * Authenticated tokens keyed by username. An entry is only reused while its principal
+     * (id, username, role, token version) equals the one just read from the database, so a
+     * role change or a revocation rebuilds it.
+     */
+    private final Map<String, Authentication> authenticationCache = new ConcurrentHashMap<>();
+
     /**
      * Performs the actual filtering logic for each incoming HTTP request.
      *
@@ -84,26 +91,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String rawToken = header.substring("Bearer ".length()).trim();
 
-            // 2. Validate the JWT and ensure no authentication is already set for the current context
-            if (tokenProvider.validateToken(rawToken)
-                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // 2. Validate the JWT (single parse) and ensure no authentication is already set for the current context
+            Claims claims = SecurityContextHolder.getContext().getAuthentication() == null
+                    ? tokenProvider.resolveClaims(rawToken).orElse(null)
+                    : null;
+            if (claims != null) {
 
-                String username   = tokenProvider.getUsernameFromJwt(rawToken);
-                long   jwtVersion = tokenProvider.getTokenVersionFromJwt(rawToken);
+                String username   = claims.getSubject();
+                long   jwtVersion = tokenProvider.getTokenVersion(claims);
 
-                // Attempt to find the user in the database
-                userRepository.findByUsername(username).ifPresent(appUser -> {
+                // Attempt to find the user's principal projection in the database
+                userRepository.findPrincipalByUsername(username).ifPresent(principal -> {
                     // 3. Perform Token Version Check (Revocation mechanism)
-                    if (appUser.getTokenVersion().equals(jwtVersion)) {
-                        // If token version matches, load UserDetails and authenticate
-                        UserDetails ud = userDetailsService.loadUserByUsername(username);
-                        UsernamePasswordAuthenticationToken auth =
-                                new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
-                        auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
-                        SecurityContextHolder.getContext().setAuthentication(auth);
+                    if (principal.tokenVersion() == jwtVersion) {
+                        // Reuse the authentication built for this exact user state, if any
+                        SecurityContextHolder.getContext().setAuthentication(authenticationFor(principal));
                         log.debug("Authenticated '{}' v={}", username, jwtVersion);
                     } else {
-                        log.warn("Revoked token: jwtV={} dbV={}", jwtVersion, appUser.getTokenVersion());
+                        authenticationCache.remove(username);
+                        log.warn("Revoked token: jwtV={} dbV={}", jwtVersion, principal.tokenVersion());
                     }
                 });
             }
@@ -111,4 +117,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Proceed to the next filter in the chain
         chain.doFilter(req, res);
     }
+
+    /**
+     * Returns the cached, immutable authentication for the given principal, building it once
+     * per user and token version.
+     *
+     * @param principal The principal projection just loaded from the database.
+     * @return An authenticated token whose principal equals {@code principal}.
+     */
+    private Authentication authenticationFor(AuthenticatedPrincipal principal) {
+        Authentication cached = authenticationCache.get(principal.username());
+        if (cached != null && principal.equals(cached.getPrincipal())) {
+            return cached;
+        }
+        Authentication auth = UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, principal.getAuthorities());
+        authenticationCache.put(principal.username(), auth);
+        return auth;
+    }
 }
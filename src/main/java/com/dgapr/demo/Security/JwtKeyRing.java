@@ -0,0 +1,281 @@
+package com.dgapr.demo.Security;
+
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code JwtKeyRing} holds the asymmetric key pairs used to sign and verify JWTs when
+ * {@code jwt.signing.algorithm} is {@code ES256} or {@code EdDSA}.
+ *
+ * <p>Exactly one key is the <em>current</em> signing key; every token it signs carries the key's
+ * {@code kid} header. Older keys stay in the verification map until every token they may have
+ * signed has expired, so rotating the signing key never logs users out. Other services can verify
+ * tokens locally from the public keys published by {@link #getJwkSet()}.</p>
+ *
+ * <p>The verification map is an immutable snapshot swapped atomically on rotation, so the lookup
+ * done for each request is a single lock-free {@link Map#get(Object)}.</p>
+ *
+ * <p>When {@code jwt.keys.dir} is set, key pairs are stored there as {@code <kid>.key} (PKCS#8) and
+ * {@code <kid>.pub} (X.509) files and preloaded on startup; otherwise keys only live in memory and
+ * a restart invalidates issued tokens.</p>
+ *
+ * @see JwtTokenProvider
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    /**
+     * Key identifiers are the UTC creation time of the key, which makes them sortable by age.
+     */
+    private static final DateTimeFormatter KID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+
+    /**
+     * A key pair known to the ring. The private key is only kept for the current signing key.
+     */
+    public record KeyEntry(String kid, PublicKey publicKey, PrivateKey privateKey, Instant createdAt) { }
+
+    /**
+     * The configured signing algorithm: {@code HS256} (legacy shared secret), {@code ES256} or {@code EdDSA}.
+     */
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String algorithm;
+
+    /**
+     * Optional directory where key pairs are persisted and preloaded from.
+     */
+    @Value("${jwt.keys.dir:}")
+    private String keysDir;
+
+    /**
+     * Token lifetime; a retired key is kept for verification at least this long.
+     */
+    @Value("${jwt.expirationMs}")
+    private long jwtExpirationMs;
+
+    private volatile KeyEntry current;
+    private volatile Instant asymmetricSince;
+    private volatile Map<String, KeyEntry> verificationKeys = Map.of();
+    private volatile Map<String, Object> jwkSet = Map.of("keys", List.of());
+
+    /**
+     * Preloads persisted keys and makes sure a signing key exists when asymmetric signing is enabled.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isAsymmetric()) {
+            log.info("JWT signing uses the shared HMAC secret; asymmetric key ring disabled.");
+            return;
+        }
+        List<KeyEntry> loaded = loadPersistedKeys();
+        loaded.sort(Comparator.comparing(KeyEntry::createdAt));
+        if (loaded.isEmpty() || loaded.get(loaded.size() - 1).privateKey() == null) {
+            loaded.add(generateKey());
+        }
+        asymmetricSince = loaded.get(0).createdAt();
+        publish(loaded);
+        log.info("JWT key ring initialised with {} key(s), signing kid={}", loaded.size(), current.kid());
+    }
+
+    /**
+     * @return {@code true} if tokens are signed with an asymmetric key from this ring.
+     */
+    public boolean isAsymmetric() {
+        return "ES256".equalsIgnoreCase(algorithm) || "EdDSA".equalsIgnoreCase(algorithm);
+    }
+
+    /**
+     * @return The creation time of the oldest key in the ring when it was loaded: when asymmetric signing
+     * was enabled if keys are persisted, the start of this instance otherwise; {@code null} when the
+     * ring is disabled.
+     */
+    public Instant asymmetricSince() {
+        return asymmetricSince;
+    }
+
+    /**
+     * @return The key currently used to sign new tokens, or {@code null} when the ring is disabled.
+     */
+    public KeyEntry currentSigningKey() {
+        return current;
+    }
+
+    /**
+     * Looks up the public key for a {@code kid} header.
+     *
+     * @param kid The key identifier taken from the token header.
+     * @return The matching public key, or {@code null} if the key is unknown or was retired.
+     */
+    public PublicKey verificationKey(String kid) {
+        KeyEntry entry = kid == null ? null : verificationKeys.get(kid);
+        return entry == null ? null : entry.publicKey();
+    }
+
+    /**
+     * @return The public verification keys as a JWK Set ({@code {"keys":[...]}}), suitable for
+     * publishing to services that verify tokens locally.
+     */
+    public Map<String, Object> getJwkSet() {
+        return jwkSet;
+    }
+
+    /**
+     * Scheduled key rotation: a fresh key pair becomes the signing key, the previous ones stay
+     * available for verification, and keys whose tokens have all expired are dropped.
+     */
+    @Scheduled(cron = "${jwt.keys.rotation-cron:0 0 3 * * SUN}")
+    public synchronized void rotate() {
+        if (!isAsymmetric()) return;
+
+        List<KeyEntry> keys = new ArrayList<>(verificationKeys.values());
+        keys.add(generateKey());
+        keys.sort(Comparator.comparing(KeyEntry::createdAt));
+
+        // A key is retired when its successor is created; keep it until its last token expired.
+        Instant cutoff = Instant.now().minusMillis(jwtExpirationMs);
+        List<KeyEntry> retained = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            KeyEntry key = keys.get(i);
+            boolean isLast = i == keys.size() - 1;
+            if (isLast) {
+                retained.add(key);
+            } else if (keys.get(i + 1).createdAt().isAfter(cutoff)) {
+                deletePersistedKey(key.kid(), false);
+                retained.add(withoutPrivateKey(key));
+            } else {
+                deletePersistedKey(key.kid(), true);
+                log.info("JWT key {} retired and removed from the key ring", key.kid());
+            }
+        }
+        publish(retained);
+        log.info("JWT signing key rotated, new kid={}", current.kid());
+    }
+
+    /**
+     * Swaps in a new immutable snapshot of the key ring. The last entry becomes the signing key.
+     */
+    private void publish(List<KeyEntry> keys) {
+        Map<String, KeyEntry> byKid = new HashMap<>();
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        for (KeyEntry key : keys) {
+            byKid.put(key.kid(), key);
+            jwks.add(Jwks.builder().key(key.publicKey()).id(key.kid()).build());
+        }
+        this.verificationKeys = Map.copyOf(byKid);
+        this.jwkSet = Map.of("keys", List.copyOf(jwks));
+        this.current = keys.get(keys.size() - 1);
+    }
+
+    /**
+     * Generates a new key pair for the configured algorithm and persists it when a key directory is set.
+     */
+    private KeyEntry generateKey() {
+        try {
+            KeyPairGenerator generator;
+            if ("ES256".equalsIgnoreCase(algorithm)) {
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            } else {
+                generator = KeyPairGenerator.getInstance("Ed25519");
+            }
+            KeyPair pair = generator.generateKeyPair();
+            Instant now = Instant.now();
+            String kid = KID_FORMAT.format(LocalDateTime.ofInstant(now, ZoneOffset.UTC));
+            KeyEntry entry = new KeyEntry(kid, pair.getPublic(), pair.getPrivate(), now);
+            persistKey(entry);
+            return entry;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate JWT signing key for " + algorithm, e);
+        }
+    }
+
+    private List<KeyEntry> loadPersistedKeys() {
+        List<KeyEntry> keys = new ArrayList<>();
+        if (!StringUtils.hasText(keysDir)) {
+            log.warn("jwt.keys.dir is not set: JWT keys are kept in memory and tokens will not survive a restart.");
+            return keys;
+        }
+        Path dir = Path.of(keysDir);
+        if (!Files.isDirectory(dir)) return keys;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.pub")) {
+            KeyFactory factory = keyFactory();
+            for (Path pub : files) {
+                String kid = pub.getFileName().toString().replace(".pub", "");
+                PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(Files.readAllBytes(pub)));
+                Path priv = dir.resolve(kid + ".key");
+                PrivateKey privateKey = Files.exists(priv)
+                        ? factory.generatePrivate(new PKCS8EncodedKeySpec(Files.readAllBytes(priv)))
+                        : null;
+                Instant createdAt = LocalDateTime.parse(kid, KID_FORMAT).toInstant(ZoneOffset.UTC);
+                keys.add(new KeyEntry(kid, publicKey, privateKey, createdAt));
+            }
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            throw new IllegalStateException("Unable to load JWT keys from " + dir, e);
+        }
+        return keys;
+    }
+
+    private void persistKey(KeyEntry entry) {
+        if (!StringUtils.hasText(keysDir)) return;
+        try {
+            Path dir = Files.createDirectories(Path.of(keysDir));
+            Files.write(dir.resolve(entry.kid() + ".key"), entry.privateKey().getEncoded());
+            Files.write(dir.resolve(entry.kid() + ".pub"), entry.publicKey().getEncoded());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to persist JWT key " + entry.kid(), e);
+        }
+    }
+
+    /**
+     * Removes a key's private half (it no longer signs) and, once fully retired, its public half.
+     */
+    private void deletePersistedKey(String kid, boolean includePublicKey) {
+        if (!StringUtils.hasText(keysDir)) return;
+        try {
+            Files.deleteIfExists(Path.of(keysDir, kid + ".key"));
+            if (includePublicKey) {
+                Files.deleteIfExists(Path.of(keysDir, kid + ".pub"));
+            }
+        } catch (IOException e) {
+            log.warn("Unable to delete retired JWT key {}: {}", kid, e.getMessage());
+        }
+    }
+
+    private KeyFactory keyFactory() throws GeneralSecurityException {
+        return KeyFactory.getInstance("ES256".equalsIgnoreCase(algorithm) ? "EC" : "Ed25519");
+    }
+
+    private static KeyEntry withoutPrivateKey(KeyEntry key) {
+        return new KeyEntry(key.kid(), key.publicKey(), null, key.createdAt());
+    }
+}
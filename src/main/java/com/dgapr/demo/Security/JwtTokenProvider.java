@@ -4,8 +4,12 @@ import com.dgapr.demo.Model.User.User;
 import com.dgapr.demo.Repository.UserRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -17,8 +21,10 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 
 /**
  * {@code JwtTokenProvider} is a utility class responsible for generating, validating,
@@ -31,6 +37,14 @@ import java.util.Date;
  * is crucial for the token revocation strategy, allowing tokens to be invalidated
  * if a user's password changes or their tokens are explicitly revoked by an administrator.</p>
  *
+ * <p>When {@code jwt.signing.algorithm} is {@code ES256} or {@code EdDSA}, tokens are signed with the
+ * current key of the {@link JwtKeyRing} and carry its {@code kid} header; verification picks the
+ * public key matching that header. Tokens without a {@code kid} are verified with the shared HMAC
+ * secret only during {@code jwt.hmac.migration-window-ms} (at most {@code jwt.expirationMs}) after the
+ * switch, so tokens issued before it stay valid for that long; afterwards they are rejected, and
+ * holding {@code jwt.secret.v2} no longer allows minting valid tokens.</p>
+ *
+ * @see JwtKeyRing
  * @see JwtAuthenticationFilter
  * @see UserRepository
  */
@@ -38,6 +52,8 @@ import java.util.Date;
 @RequiredArgsConstructor
 public class JwtTokenProvider {
 
+    private final JwtKeyRing keyRing;
+
     private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
 
     /**
@@ -64,20 +80,66 @@ public class JwtTokenProvider {
     @Value("${jwt.expirationMs}")
     private long jwtExpirationMs;
 
+    /**
+     * How long tokens without a {@code kid}, signed with the HMAC secret, are still accepted after
+     * switching to asymmetric signing, loaded from {@code jwt.hmac.migration-window-ms}. Capped at
+     * {@link #jwtExpirationMs}: no token issued before the switch lives longer.
+     */
+    @Value("${jwt.hmac.migration-window-ms:0}")
+    private long hmacMigrationWindowMs;
+
+    /**
+     * The instant after which tokens without a {@code kid} are rejected, or {@code null} while the
+     * HMAC secret is the signing key.
+     */
+    private Instant hmacAcceptedUntil;
+
     /**
      * The {@link SecretKey} derived from {@link #jwtSecret}, used internally for cryptographic
      * operations (signing and verifying JWTs).
      */
     private SecretKey key;
 
+    /**
+     * The immutable, thread-safe parser shared by every verification. Building it once avoids
+     * re-creating the parser and its key locator on each request.
+     */
+    private JwtParser parser;
+
     /**
      * Initializes the {@link SecretKey} used for signing and verifying JWTs.
      * This method is automatically invoked after the bean's construction by Spring.
-     * It converts the {@link #jwtSecret} string into a secure HMAC SHA key.
+     * It converts the {@link #jwtSecret} string into a secure HMAC SHA key and builds
+     * the shared {@link JwtParser}, whose key locator resolves the verification key from the
+     * {@code kid} header.
      */
     @PostConstruct
     public void init() {
         key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        if (keyRing.isAsymmetric()) {
+            long window = Math.max(0, Math.min(hmacMigrationWindowMs, jwtExpirationMs));
+            hmacAcceptedUntil = keyRing.asymmetricSince().plusMillis(window);
+            log.info("JWTs without key id accepted until {}", hmacAcceptedUntil);
+        }
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            if (hmacAcceptedUntil != null && !Instant.now().isBefore(hmacAcceptedUntil)) {
+                                throw new JwtException("JWT without key id rejected: HMAC signing is disabled");
+                            }
+                            return key;
+                        }
+                        Key publicKey = keyRing.verificationKey(kid);
+                        if (publicKey == null) {
+                            throw new JwtException("Unknown JWT key id: " + kid);
+                        }
+                        return publicKey;
+                    }
+                })
+                .build();
     }
 
     /**
@@ -97,13 +159,19 @@ public class JwtTokenProvider {
         Instant now = Instant.now();
         Instant expiry = now.plusMillis(jwtExpirationMs);
 
-        String token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
-                .claim("v", tokenVersion)
-                .signWith(key) // Sign the token with the secret key
-                .compact();
+                .claim("v", tokenVersion);
+
+        JwtKeyRing.KeyEntry signingKey = keyRing.currentSigningKey();
+        String token = (signingKey != null)
+                ? builder.header().keyId(signingKey.kid()).and()
+                        .signWith(signingKey.privateKey()) // ES256 or EdDSA, picked from the key type
+                        .compact()
+                : builder.signWith(key) // Sign the token with the secret key
+                        .compact();
 
         return TOKEN_PREFIX + token; // Return the token with the "Bearer" prefix
     }
@@ -118,15 +186,26 @@ public class JwtTokenProvider {
      * @see #parseClaims(String)
      */
     public boolean validateToken(String requestToken) {
+        return resolveClaims(requestToken).isPresent();
+    }
+
+    /**
+     * Verifies a JWT and returns its claims in a single parse, so callers needing both the
+     * validity and the payload do not verify the signature several times.
+     *
+     * @param requestToken The JWT string, which may optionally include the "Bearer " prefix.
+     * @return The token's {@link Claims}, or an empty {@link Optional} if the token is expired,
+     * has an invalid signature, or is malformed.
+     */
+    public Optional<Claims> resolveClaims(String requestToken) {
         try {
-            parseClaims(requestToken);
-            return true;
+            return Optional.of(parseClaims(requestToken));
         } catch (ExpiredJwtException e) {
             log.warn("JWT expired: {}", e.getMessage());
         } catch (JwtException | IllegalArgumentException e) {
             log.warn("JWT invalid: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
     /**
@@ -143,9 +222,7 @@ public class JwtTokenProvider {
                 ? rawToken.substring(TOKEN_PREFIX.length())
                 : rawToken;
 
-        return Jwts.parser()
-                .verifyWith(key) // Set the key for verification
-                .build()
+        return parser
                 .parseSignedClaims(token) // Parse the signed JWT to extract claims
                 .getPayload(); // Return the claims payload
     }
@@ -173,7 +250,17 @@ public class JwtTokenProvider {
      * @see #parseClaims(String)
      */
     public long getTokenVersionFromJwt(String rawToken) {
-        Object v = parseClaims(rawToken).get("v"); // Retrieve the "v" claim
+        return getTokenVersion(parseClaims(rawToken));
+    }
+
+    /**
+     * Extracts the custom numeric "v" (token version) claim from already verified claims.
+     *
+     * @param claims The claims returned by {@link #resolveClaims(String)}.
+     * @return The long value of the "v" claim, or {@code -1L} if it is missing or not a number.
+     */
+    public long getTokenVersion(Claims claims) {
+        Object v = claims.get("v"); // Retrieve the "v" claim
         return (v instanceof Number) ? ((Number) v).longValue() : -1L;
     }
 }
\ No newline at end of file
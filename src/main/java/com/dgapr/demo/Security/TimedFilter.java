@@ -0,0 +1,73 @@
+package com.dgapr.demo.Security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TimedFilter} wraps a security filter and records, in the {@code security.filter} timer
+ * tagged with the filter name, only the time spent inside that filter.
+ *
+ * <p>The time spent further down the chain (other filters, the controller, serialization) is
+ * measured separately and subtracted, so the metric shows how much of each request's latency is
+ * the filter's own overhead.</p>
+ */
+public class TimedFilter implements Filter {
+
+    private final Filter delegate;
+    private final Timer timer;
+
+    /**
+     * @param name     The value of the {@code filter} tag (e.g. "jwt").
+     * @param delegate The filter being measured.
+     * @param registry The registry the timer is registered in.
+     */
+    public TimedFilter(String name, Filter delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.timer = Timer.builder("security.filter")
+                .description("Time spent inside a security filter, excluding the rest of the chain")
+                .tag("filter", name)
+                .register(registry);
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        DownstreamChain downstream = new DownstreamChain(chain);
+        long start = System.nanoTime();
+        try {
+            delegate.doFilter(req, res, downstream);
+        } finally {
+            timer.record(System.nanoTime() - start - downstream.elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Forwards to the real chain while measuring how long the rest of the chain takes.
+     */
+    private static final class DownstreamChain implements FilterChain {
+        private final FilterChain chain;
+        private long elapsedNanos;
+
+        private DownstreamChain(FilterChain chain) {
+            this.chain = chain;
+        }
+
+        @Override
+        public void doFilter(ServletRequest req, ServletResponse res) throws IOException, ServletException {
+            long start = System.nanoTime();
+            try {
+                chain.doFilter(req, res);
+            } finally {
+                elapsedNanos += System.nanoTime() - start;
+            }
+        }
+    }
+}
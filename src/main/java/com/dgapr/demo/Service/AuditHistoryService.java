@@ -0,0 +1,142 @@
+package com.dgapr.demo.Service;
+
+import com.dgapr.demo.Audit.AuditDetailsCodec;
+import com.dgapr.demo.Audit.AuditHistorySink;
+import com.dgapr.demo.Audit.AuditedState;
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
+import com.dgapr.demo.Dto.AuditDto.HistoricalState;
+import com.dgapr.demo.Dto.AuditDto.HistoricalStatePage;
+import com.dgapr.demo.Model.AuditSnapshot;
+import com.dgapr.demo.Repository.AuditLogRepository;
+import com.dgapr.demo.Repository.AuditSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Point-in-time reads of audited rows, for the tables whose history is kept by {@link AuditHistorySink}.
+ *
+ * <p>A row at instant {@code at} is its latest {@link AuditSnapshot} up to {@code at} plus the audit
+ * diffs after it (by outbox id, so entries with the same timestamp are neither skipped nor applied
+ * twice), at most {@code audit.history.snapshot-every} of them. A whole table at {@code at} is read a
+ * page at a time with two queries: the latest snapshot of each row, then the diffs following those
+ * snapshots.</p>
+ *
+ * <p>History starts with a row's creation or, for rows that existed before it was enabled or were
+ * bulk imported, with the baseline taken by {@link com.dgapr.demo.Audit.AuditHistoryBaseline} on
+ * startup or on the row's first change: instants before that find no state. Diffs archived by the retention job are no longer applied, so instants older than
+ * {@code audit.retention.months} resolve to the nearest earlier snapshot.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditHistoryService {
+
+    private final AuditSnapshotRepository snapshotRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final AuditHistorySink historySink;
+    private final AuditDetailsCodec codec;
+
+    /**
+     * @param table the audited table
+     * @param rowId the id of the row
+     * @param at    the instant, {@code null} for now
+     * @return the state of the row at {@code at}, empty if it did not exist yet (or has no history)
+     * @throws IllegalArgumentException if the history of the table is not kept
+     */
+    @Transactional(readOnly = true)
+    public Optional<HistoricalState> getAsOf(String table, String rowId, Instant at) {
+        checkTable(table);
+        Instant instant = at == null ? Instant.now() : at;
+        return snapshotRepository.findFirstByTableNameAndRowIdAndAsOfLessThanEqualOrderByAsOfDesc(table, rowId, instant)
+                .map(snapshot -> rebuild(snapshot,
+                        auditLogRepository.findRowChanges(table, rowId, snapshot.getLastOutboxId(), instant), instant));
+    }
+
+    /**
+     * @param table  the audited table
+     * @param at     the instant, {@code null} for now
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param limit  the page size, or {@code null} for {@value AuditService#DEFAULT_LIMIT}
+     * @return the rows existing at {@code at} (including hard-deleted ones, flagged), in row id order
+     * @throws IllegalArgumentException if the history of the table is not kept, or the cursor or limit is invalid
+     */
+    @Transactional(readOnly = true)
+    public HistoricalStatePage getAllAsOf(String table, Instant at, String cursor, Integer limit) {
+        checkTable(table);
+        if (limit != null && (limit < 1 || limit > AuditService.MAX_LIMIT)) {
+            throw new IllegalArgumentException("Invalid limit '" + limit + "'. Expected a value between 1 and " + AuditService.MAX_LIMIT + ".");
+        }
+        int size = limit == null ? AuditService.DEFAULT_LIMIT : limit;
+        Instant instant = at == null ? Instant.now() : at;
+        String afterRowId = (cursor == null || cursor.isBlank()) ? "" : decodeCursor(cursor);
+
+        List<AuditSnapshot> snapshots = snapshotRepository.findLatestPerRow(table, instant, afterRowId,
+                PageRequest.of(0, size + 1));
+        boolean more = snapshots.size() > size;
+        if (more) snapshots = snapshots.subList(0, size);
+        if (snapshots.isEmpty()) return new HistoricalStatePage(List.of(), null);
+
+        Map<String, List<AuditLogRow>> changes = auditLogRepository
+                .findChangesAfterSnapshots(snapshots.stream().map(AuditSnapshot::getId).toList(), instant)
+                .stream()
+                .collect(Collectors.groupingBy(AuditLogRow::rowId));
+        List<HistoricalState> items = new ArrayList<>(snapshots.size());
+        for (AuditSnapshot snapshot : snapshots) {
+            items.add(rebuild(snapshot, changes.getOrDefault(snapshot.getRowId(), List.of()), instant));
+        }
+        String next = more ? encodeCursor(snapshots.get(snapshots.size() - 1).getRowId()) : null;
+        return new HistoricalStatePage(items, next);
+    }
+
+    /**
+     * @param snapshot the latest snapshot of the row up to {@code at}
+     * @param changes  the row's entries after it, oldest first
+     * @param at       the instant asked for
+     * @return the snapshot with the changes applied; entries that cannot be decoded are skipped
+     */
+    HistoricalState rebuild(AuditSnapshot snapshot, List<AuditLogRow> changes, Instant at) {
+        AuditedState state = AuditedState.of(codec.decodeTree(snapshot.getStateData()), snapshot.isDeleted(), snapshot.getAsOf());
+        for (AuditLogRow change : changes) {
+            if (change.detailsData() == null) continue;
+            try {
+                state.apply(change.operation(), codec.decodeTree(change.detailsData()), change.timestamp());
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipped unreadable audit entry {} of {} {}: {}", change.auditId(), snapshot.getTableName(),
+                        snapshot.getRowId(), e.getMessage());
+            }
+        }
+        return new HistoricalState(snapshot.getTableName(), snapshot.getRowId(), at, state.lastChange(),
+                state.deleted(), state.values());
+    }
+
+    private void checkTable(String table) {
+        if (!historySink.tables().contains(table)) {
+            throw new IllegalArgumentException("No history is kept for table '" + table + "'. Expected one of "
+                    + historySink.tables() + ".");
+        }
+    }
+
+    private static String encodeCursor(String rowId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(rowId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + cursor + "'.");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.dgapr.demo.Service;
+
+import com.dgapr.demo.Audit.AuditArchive;
+import com.dgapr.demo.Audit.AuditDetailsCodec;
+import com.dgapr.demo.Audit.AuditRingSink;
+import com.dgapr.demo.Dto.AuditDto.ActivitySummary;
+import com.dgapr.demo.Dto.AuditDto.AuditLogEntry;
+import com.dgapr.demo.Dto.AuditDto.AuditLogFilter;
+import com.dgapr.demo.Dto.AuditDto.AuditLogPage;
+import com.dgapr.demo.Repository.AuditActivityRepository;
+import com.dgapr.demo.Repository.AuditLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Read access to the audit log and to its archives.
+ *
+ * <p>Pages are addressed with an opaque cursor holding the {@code (timestamp, auditId)} of the last
+ * entry returned, so fetching page n costs the same as fetching page 1 and entries written while a
+ * client is paging do not shift the following pages.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+    public static final int DEFAULT_ACTIVITY_DAYS = 30;
+    public static final int MAX_ACTIVITY_DAYS = 366;
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditArchive auditArchive;
+    private final AuditRingSink recentActivity;
+    private final AuditActivityRepository activityRepository;
+    private final AuditDetailsCodec auditDetailsCodec;
+
+    /**
+     * Returns one page of audit entries matching {@code filter}, newest first.
+     *
+     * @param filter the criteria
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param limit  the page size, or {@code null} for {@value #DEFAULT_LIMIT}
+     * @return the entries and the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed, the limit is out of range,
+     *                                  or the time range is empty
+     */
+    @Transactional(readOnly = true)
+    public AuditLogPage getAuditLog(AuditLogFilter filter, String cursor, Integer limit) {
+        return page(filter, cursor, limit, (f, afterTimestamp, afterId, max) ->
+                auditLogRepository.findPage(f, afterTimestamp, afterId, max).stream()
+                        .map(auditDetailsCodec::toEntry).toList());
+    }
+
+    /**
+     * Returns one page of archived audit entries (months removed from the table by the retention job)
+     * matching {@code filter}, newest first, with the same cursor semantics as {@link #getAuditLog}.
+     *
+     * @param filter the criteria
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param limit  the page size, or {@code null} for {@value #DEFAULT_LIMIT}
+     * @return the entries and the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed, the limit is out of range,
+     *                                  or the time range is empty
+     */
+    public AuditLogPage getArchivedAuditLog(AuditLogFilter filter, String cursor, Integer limit) {
+        return page(filter, cursor, limit, auditArchive::search);
+    }
+
+    /**
+     * Returns the most recent audit entries relayed by this instance, newest first, from memory.
+     * They carry no audit id and are not filtered; use {@link #getAuditLog} for queries.
+     *
+     * @param limit the number of entries, or {@code null} for {@value #DEFAULT_LIMIT}
+     * @return the entries
+     * @throws IllegalArgumentException if the limit is out of range
+     */
+    public List<AuditLogEntry> getRecentActivity(Integer limit) {
+        checkLimit(limit);
+        return recentActivity.recent(limit == null ? DEFAULT_LIMIT : limit);
+    }
+
+    /**
+     * Returns the daily activity counters, by user, table and operation, from the rollup maintained as
+     * entries are relayed: a range lookup, whatever the size of the audit log.
+     *
+     * @param user only this user's activity, or {@code null} for all users
+     * @param from the first day (UTC), or {@code null} for {@value #DEFAULT_ACTIVITY_DAYS} days before {@code to}
+     * @param to   the last day (UTC), or {@code null} for today
+     * @return the counters, most recent day first
+     * @throws IllegalArgumentException if the range is empty or longer than {@value #MAX_ACTIVITY_DAYS} days
+     */
+    @Transactional(readOnly = true)
+    public List<ActivitySummary> getActivity(String user, LocalDate from, LocalDate to) {
+        LocalDate last = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+        LocalDate first = from == null ? last.minusDays(DEFAULT_ACTIVITY_DAYS - 1) : from;
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("Invalid range: 'from' must not be after 'to'.");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= MAX_ACTIVITY_DAYS) {
+            throw new IllegalArgumentException("Invalid range: at most " + MAX_ACTIVITY_DAYS + " days.");
+        }
+        return (user == null || user.isBlank())
+                ? activityRepository.findAllUsers(first, last)
+                : activityRepository.findByUser(user, first, last);
+    }
+
+    private static void checkLimit(Integer limit) {
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new IllegalArgumentException("Invalid limit '" + limit + "'. Expected a value between 1 and " + MAX_LIMIT + ".");
+        }
+    }
+
+    private AuditLogPage page(AuditLogFilter filter, String cursor, Integer limit, PageSource source) {
+        checkLimit(limit);
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new IllegalArgumentException("Invalid time range: 'from' must be before 'to'.");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+
+        Position after = (cursor == null || cursor.isBlank()) ? null : decodeCursor(cursor);
+
+        // one extra row tells whether there is a next page without a count query
+        List<AuditLogEntry> rows = source.find(filter,
+                after == null ? null : after.timestamp(), after == null ? null : after.auditId(), size + 1);
+        if (rows.size() <= size) {
+            return new AuditLogPage(rows, null);
+        }
+        List<AuditLogEntry> items = rows.subList(0, size);
+        AuditLogEntry last = items.get(size - 1);
+        return new AuditLogPage(List.copyOf(items), encodeCursor(last.timestamp(), last.auditId()));
+    }
+
+    private static String encodeCursor(Instant timestamp, Long auditId) {
+        String position = timestamp + "|" + auditId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length == 2) return new Position(Instant.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor '" + cursor + "'.");
+    }
+
+    /** Where entries are read from: the live table or the archives. */
+    @FunctionalInterface
+    private interface PageSource {
+        List<AuditLogEntry> find(AuditLogFilter filter, Instant afterTimestamp, Long afterId, int limit);
+    }
+
+    /** The (timestamp, auditId) of the last entry of a page. */
+    private record Position(Instant timestamp, Long auditId) { }
+}
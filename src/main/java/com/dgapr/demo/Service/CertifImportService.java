@@ -0,0 +1,249 @@
+package com.dgapr.demo.Service;
+
+import com.dgapr.demo.Audit.AuditDetails;
+import com.dgapr.demo.Audit.AuditEvent;
+import com.dgapr.demo.Dto.CertifDto.CertifCreateDto;
+import com.dgapr.demo.Dto.CertifDto.CertifImportReport;
+import com.dgapr.demo.Repository.CertifRepository;
+import com.dgapr.demo.Util.CsvParser;
+import com.dgapr.demo.Vocabulary.Vocabulary;
+import com.dgapr.demo.Vocabulary.VocabularyCache;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk import of certificates from PKI exports, as a streamed JSON array or CSV file.
+ *
+ * <p>The input is parsed incrementally and processed in chunks of {@code certificate.import.batch-size}.
+ * For each chunk, common names are checked against the database with a single {@code IN} lookup (and
+ * against the rows already read, in memory), so duplicates are rejected up front instead of costing a
+ * failed insert. Valid rows are then inserted with one JDBC batch per chunk.</p>
+ *
+ * <p>Instead of one audit row per certificate, the import publishes a single {@code BULK_CREATE}
+ * {@link AuditEvent} summarising the run.</p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CertifImportService {
+
+    private static final String TABLE = "Certificate";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO Certificate (ID_Demand, Demande_Name, Model, Type, Organizational_Unit, Common_Name, " +
+            "Creation_Date, Expiration_Date, Is_Deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CertifRepository certifRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher publisher;
+    private final AuditorAware<String> auditorProvider;
+    private final VocabularyCache vocabularyCache;
+
+    /**
+     * Rows per chunk: one duplicate lookup and one JDBC batch per chunk. Kept well below
+     * SQL Server's limit of 2100 parameters per statement for the {@code IN} lookup.
+     */
+    @Value("${certificate.import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Imports certificates from a JSON array of {@link CertifCreateDto}, reading one element at a time.
+     *
+     * @param in the request body
+     * @return the per-row import report
+     * @throws IOException if the stream cannot be read or is not a JSON array
+     */
+    @Transactional
+    public CertifImportReport importJson(InputStream in) throws IOException {
+        ImportRun run = new ImportRun("json");
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of certificates.");
+            }
+            int rowNumber = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                run.add(new Row(++rowNumber, objectMapper.readValue(parser, CertifCreateDto.class), null));
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Imports certificates from a CSV stream, read line by line. The first line is a header naming the
+     * columns: {@code idDemand, demandeName, model, type, organizationalUnit, commonName, creationDate,
+     * expirationDate} (dates as YYYY-MM-DD).
+     *
+     * @param reader the CSV content
+     * @return the per-row import report
+     * @throws IOException if the stream cannot be read
+     */
+    @Transactional
+    public CertifImportReport importCsv(Reader reader) throws IOException {
+        ImportRun run = new ImportRun("csv");
+        BufferedReader lines = new BufferedReader(reader);
+        String headerLine = lines.readLine();
+        if (headerLine != null) {
+            Map<String, Integer> header = CsvParser.parseHeader(headerLine);
+            int rowNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) continue;
+                run.add(parseCsvRow(++rowNumber, CsvParser.parseLine(line), header));
+            }
+        }
+        return run.finish();
+    }
+
+    private static Row parseCsvRow(int rowNumber, List<String> fields, Map<String, Integer> header) {
+        CertifCreateDto dto = new CertifCreateDto();
+        dto.setIdDemand(CsvParser.field(fields, header, "idDemand"));
+        dto.setDemandeName(CsvParser.field(fields, header, "demandeName"));
+        dto.setModel(CsvParser.field(fields, header, "model"));
+        dto.setType(CsvParser.field(fields, header, "type"));
+        dto.setOrganizationalUnit(CsvParser.field(fields, header, "organizationalUnit"));
+        dto.setCommonName(CsvParser.field(fields, header, "commonName"));
+        try {
+            String creation = CsvParser.field(fields, header, "creationDate");
+            dto.setCreationDate(creation == null ? null : LocalDate.parse(creation));
+            String expiration = CsvParser.field(fields, header, "expirationDate");
+            dto.setExpirationDate(expiration == null ? null : LocalDate.parse(expiration));
+        } catch (DateTimeParseException e) {
+            return new Row(rowNumber, dto, "Invalid date '" + e.getParsedString() + "'. Expected YYYY-MM-DD.");
+        }
+        return new Row(rowNumber, dto, null);
+    }
+
+    /**
+     * One input row with its 1-based position and, if parsing already failed, the reason.
+     */
+    private record Row(int number, CertifCreateDto dto, String parseError) { }
+
+    /**
+     * State of one import: the current chunk, the common names already accepted and the running report.
+     */
+    private final class ImportRun {
+        private final String source;
+        private final List<Row> chunk = new ArrayList<>();
+        private final Set<String> seenCommonNames = new HashSet<>();
+        private final List<CertifImportReport.RowError> errors = new ArrayList<>();
+        private int received;
+        private int imported;
+
+        ImportRun(String source) {
+            this.source = source;
+        }
+
+        void add(Row row) {
+            chunk.add(row);
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) return;
+            received += chunk.size();
+
+            // 1. Common names of this chunk already stored, in one IN lookup
+            Set<String> names = new HashSet<>();
+            for (Row row : chunk) {
+                if (row.dto().getCommonName() != null) names.add(row.dto().getCommonName());
+            }
+            Set<String> existing = names.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(certifRepository.findExistingCommonNames(names));
+
+            // 2. Validate each row against the looked-up and already-accepted names
+            List<CertifCreateDto> valid = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                String error = validate(row, existing);
+                if (error == null) {
+                    valid.add(row.dto());
+                } else {
+                    errors.add(new CertifImportReport.RowError(row.number(), row.dto().getCommonName(), error));
+                }
+            }
+
+            // 3. Insert the valid rows with one JDBC batch
+            if (!valid.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, valid, valid.size(), (ps, dto) -> {
+                    ps.setString(1, dto.getIdDemand());
+                    ps.setString(2, dto.getDemandeName());
+                    ps.setString(3, dto.getModel());
+                    ps.setString(4, dto.getType());
+                    ps.setString(5, dto.getOrganizationalUnit());
+                    ps.setString(6, dto.getCommonName());
+                    ps.setDate(7, dto.getCreationDate() == null ? null : Date.valueOf(dto.getCreationDate()));
+                    ps.setDate(8, Date.valueOf(dto.getExpirationDate()));
+                });
+                imported += valid.size();
+                // JDBC inserts bypass Hibernate's events: feed the typeahead vocabularies explicitly
+                vocabularyCache.applyInsertsAfterCommit(Vocabulary.CERTIFICATE_TYPE,
+                        valid.stream().map(CertifCreateDto::getType).toList());
+                vocabularyCache.applyInsertsAfterCommit(Vocabulary.ORGANIZATIONAL_UNIT,
+                        valid.stream().map(CertifCreateDto::getOrganizationalUnit).toList());
+            }
+            chunk.clear();
+        }
+
+        private String validate(Row row, Set<String> existing) {
+            if (row.parseError() != null) return row.parseError();
+            CertifCreateDto dto = row.dto();
+            if (dto.getIdDemand() == null || dto.getDemandeName() == null || dto.getModel() == null ||
+                    dto.getType() == null || dto.getCommonName() == null || dto.getExpirationDate() == null) {
+                return "One or more required fields are null.";
+            }
+            if (existing.contains(dto.getCommonName())) return "Certificate with this Common Name already exists.";
+            if (!seenCommonNames.add(dto.getCommonName())) return "Duplicate Common Name in import.";
+            return null;
+        }
+
+        CertifImportReport finish() {
+            flush();
+            publishAudit();
+            log.info("Certificate import ({}) finished: {} received, {} imported, {} rejected",
+                    source, received, imported, errors.size());
+            return new CertifImportReport(received, imported, List.copyOf(errors));
+        }
+
+        /**
+         * Publishes one aggregated audit event for the whole import instead of one per certificate.
+         */
+        private void publishAudit() {
+            if (imported == 0) return;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("source", source);
+            summary.put("received", received);
+            summary.put("imported", imported);
+            summary.put("rejected", errors.size());
+            String user = auditorProvider.getCurrentAuditor().orElse("SYSTEM");
+            publisher.publishEvent(new AuditEvent(this, TABLE, "IMPORT-" + UUID.randomUUID(), "BULK_CREATE",
+                    AuditDetails.snapshot(summary), user));
+        }
+    }
+}
@@ -4,9 +4,15 @@ import com.dgapr.demo.Dto.CertifDto.CertifCreateDto;
 import com.dgapr.demo.Dto.CertifDto.CertifResponseDto;
 import com.dgapr.demo.Dto.CertifDto.CertifUpdateDto;
 import com.dgapr.demo.Exception.DuplicateCertificateException;
+import com.dgapr.demo.Exception.VersionConflictException;
 import com.dgapr.demo.Model.Certificate.Certificate;
 import com.dgapr.demo.Repository.CertifRepository;
 import com.dgapr.demo.Specification.CertificatSpecification;
+import com.dgapr.demo.Util.MergePatch;
+import com.dgapr.demo.Vocabulary.Vocabulary;
+import com.dgapr.demo.Vocabulary.VocabularyCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -14,6 +20,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,11 +35,16 @@ public class CertifService {
 
     private final CertifRepository certifRepository;
     private final ModelMapper modelMapper;
+    private final VocabularyCache vocabularyCache;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public CertifService(CertifRepository certifRepository, ModelMapper modelMapper) {
+    public CertifService(CertifRepository certifRepository, ModelMapper modelMapper, VocabularyCache vocabularyCache,
+                         ObjectMapper objectMapper) {
         this.certifRepository = certifRepository;
         this.modelMapper = modelMapper;
+        this.vocabularyCache = vocabularyCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -68,6 +80,35 @@ public class CertifService {
                 .map(certificate -> modelMapper.map(certificate, CertifResponseDto.class));
     }
 
+    /**
+     * Retrieves only the version of an active certificate, without loading the entity.
+     * Used to answer conditional requests ({@code If-None-Match}) cheaply.
+     *
+     * @param id The unique identifier of the certificate.
+     * @return An {@link Optional} containing the version, or empty if no active certificate has this ID.
+     */
+    public Optional<Long> getCertificatVersion(Integer id) {
+        return certifRepository.findVersionById(id);
+    }
+
+    /**
+     * Retrieves the distinct organizational units of active certificates from the vocabulary cache.
+     *
+     * @return The cached values with their ETag.
+     */
+    public VocabularyCache.Snapshot getOrganizationalUnits() {
+        return vocabularyCache.get(Vocabulary.ORGANIZATIONAL_UNIT);
+    }
+
+    /**
+     * Retrieves the distinct types of active certificates from the vocabulary cache.
+     *
+     * @return The cached values with their ETag.
+     */
+    public VocabularyCache.Snapshot getTypes() {
+        return vocabularyCache.get(Vocabulary.CERTIFICATE_TYPE);
+    }
+
     /**
      * Creates a new certificate from the provided DTO.
      *
@@ -94,28 +135,68 @@ public class CertifService {
      *
      * @param id The unique identifier of the certificate to update.
      * @param dto The {@link CertifUpdateDto} containing the updated certificate data.
-     * @return An {@link Optional} containing the updated {@link CertifResponseDto} if the certificate was found and updated,
-     * otherwise an empty {@link Optional}.
+     * @param expectedVersion The version the client's update is based on ({@code If-Match}), or {@code null} to skip the check.
+     * @return An {@link Optional} containing the updated {@link CertifResponseDto} (with its new version) if the certificate
+     * was found and updated, otherwise an empty {@link Optional}.
      * @throws IllegalArgumentException if a data integrity violation occurs during the update.
+     * @throws VersionConflictException if {@code expectedVersion} is not the stored version.
+     */
+    @Transactional
+    public Optional<CertifResponseDto> updateCertificat(Integer id, CertifUpdateDto dto, Long expectedVersion) {
+        return certifRepository.findById(id)
+                .map(certificate -> {
+                    VersionConflictException.check("Certificate", id, expectedVersion, certificate.getVersion());
+                    return applyUpdate(certificate, dto);
+                });
+    }
+
+    /**
+     * Partially updates an existing certificate from a JSON Merge Patch: only the fields present in
+     * the patch change, and an explicit {@code null} clears a field.
+     *
+     * <p>The patch is applied to a {@link CertifUpdateDto} filled from the current certificate, so
+     * unchanged fields keep their value; Hibernate then only finds the patched fields dirty, and the
+     * UPDATE statement and the audit entry only carry those columns.</p>
+     *
+     * @param id The unique identifier of the certificate to patch.
+     * @param patch The merge patch document.
+     * @param expectedVersion The version the client's patch is based on ({@code If-Match}), or {@code null} to skip the check.
+     * @return An {@link Optional} containing the updated {@link CertifResponseDto} (with its new version) if the certificate
+     * was found and updated, otherwise an empty {@link Optional}.
+     * @throws IllegalArgumentException if the patch is invalid, clears a required field, or a data integrity violation occurs.
+     * @throws VersionConflictException if {@code expectedVersion} is not the stored version.
      */
-    public Optional<CertifResponseDto> updateCertificat(Integer id, CertifUpdateDto dto) {
+    @Transactional
+    public Optional<CertifResponseDto> patchCertificat(Integer id, JsonNode patch, Long expectedVersion) {
         return certifRepository.findById(id)
+                .filter(cert -> !cert.getIsDeleted())
                 .map(certificate -> {
-                    certificate.setDemandeName(dto.getDemandeName());
-                    certificate.setModel(dto.getModel());
-                    certificate.setType(dto.getType());
-                    certificate.setOrganizationalUnit(dto.getOrganizationalUnit());
-                    certificate.setCommonName(dto.getCommonName());
-                    certificate.setExpirationDate(dto.getExpirationDate());
-                    try {
-                        certifRepository.save(certificate);
-                    } catch (DataIntegrityViolationException e) {
-                        throw new IllegalArgumentException("Unique constraint violation or invalid data.");
+                    VersionConflictException.check("Certificate", id, expectedVersion, certificate.getVersion());
+                    CertifUpdateDto dto = MergePatch.apply(objectMapper, patch, modelMapper.map(certificate, CertifUpdateDto.class));
+                    if (dto.getDemandeName() == null || dto.getModel() == null || dto.getType() == null ||
+                        dto.getCommonName() == null || dto.getExpirationDate() == null) {
+                        throw new IllegalArgumentException("One or more required fields are null.");
                     }
-                    return modelMapper.map(certificate, CertifResponseDto.class);
+                    return applyUpdate(certificate, dto);
                 });
     }
 
+    private CertifResponseDto applyUpdate(Certificate certificate, CertifUpdateDto dto) {
+        certificate.setDemandeName(dto.getDemandeName());
+        certificate.setModel(dto.getModel());
+        certificate.setType(dto.getType());
+        certificate.setOrganizationalUnit(dto.getOrganizationalUnit());
+        certificate.setCommonName(dto.getCommonName());
+        certificate.setExpirationDate(dto.getExpirationDate());
+        try {
+            // flush now so constraint violations surface here and the returned version is the new one
+            certifRepository.saveAndFlush(certificate);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Unique constraint violation or invalid data.");
+        }
+        return modelMapper.map(certificate, CertifResponseDto.class);
+    }
+
     /**
      * Performs a soft delete on a certificate by setting its 'isDeleted' flag to true.
      *
@@ -2,14 +2,31 @@ package com.dgapr.demo.Service;
 
 
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.dgapr.demo.Dto.MarcheDto.MarcheResponseDto;
+import com.dgapr.demo.Dto.MarcheDto.MarcheUpdateDto;
+import com.dgapr.demo.Exception.VersionConflictException;
 import com.dgapr.demo.Model.Marche;
+import com.dgapr.demo.Model.Materiel;
 import com.dgapr.demo.Repository.MarcheRepository;
+import com.dgapr.demo.Repository.MaterielRepository;
+import com.dgapr.demo.Specification.MarcheSpecification;
+import com.dgapr.demo.Util.MergePatch;
+import com.dgapr.demo.Vocabulary.Vocabulary;
+import com.dgapr.demo.Vocabulary.VocabularyCache;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -19,12 +36,41 @@ public class MarcheService {
     @Autowired
     private MarcheRepository marcheRepository;
 
+    @Autowired
+    private MaterielRepository materielRepository;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VocabularyCache vocabularyCache;
+
     public Marche addMarche(Marche marche) {
         return marcheRepository.save(marche);
     }
 
-    public List<Marche> getAllMarches() {
-        return marcheRepository.findAll();
+    /**
+     * Retrieves a paginated list of marchés based on provided filters.
+     * Applies dynamic filtering using {@link MarcheSpecification}.
+     *
+     * @param pageable A {@link Pageable} object containing pagination and sorting information.
+     * @param filterParams A {@link Map} of filter parameters to apply to the marché search.
+     * @return A {@link Page} of {@link MarcheResponseDto} objects.
+     */
+    public Page<MarcheResponseDto> getMarches(Pageable pageable, Map<String, String> filterParams) {
+        MarcheSpecification spec = new MarcheSpecification(filterParams);
+        return marcheRepository.findAll(spec, pageable)
+                .map(marche -> modelMapper.map(marche, MarcheResponseDto.class));
+    }
+
+    /**
+     * Reads only the version of a marché, for ETag checks that must not load the entity.
+     */
+    public Optional<Long> getMarcheVersion(Long id) {
+        return marcheRepository.findVersionById(id);
     }
 
     public Marche getMarcheById(Long id) {
@@ -36,8 +82,20 @@ public class MarcheService {
         }
     }
 
-    public Marche updateMarche(Long id, Marche marcheDetails) {
+    /**
+     * Updates a marché and, when its warranty end changes, the warranty end of its materiels:
+     * those without their own warranty inherit it in one UPDATE, the others are recomputed from
+     * the new reception date.
+     *
+     * @param expectedVersion the version the client's update is based on ({@code If-Match}), or {@code null} to skip the check
+     * @throws VersionConflictException if {@code expectedVersion} is not the stored version
+     */
+    @Transactional
+    public Marche updateMarche(Long id, Marche marcheDetails, Long expectedVersion) {
         Marche marche = getMarcheById(id);
+        VersionConflictException.check("Marche", id, expectedVersion, marche.getVersion());
+        LocalDate previousReception = marche.getDate_reception();
+        LocalDate previousWarrantyEnd = marche.getWarranty_end();
         marche.setTitre_marche(marcheDetails.getTitre_marche());
         marche.setId_matricule(marcheDetails.getId_matricule());
         marche.setSociete(marcheDetails.getSociete());
@@ -46,7 +104,61 @@ public class MarcheService {
         marche.setDate_reception(marcheDetails.getDate_reception());
         marche.setGarantie_duree(marcheDetails.getGarantie_duree());
         marche.setGarantie_unite(marcheDetails.getGarantie_unite());
+        return saveUpdated(marche, previousReception, previousWarrantyEnd);
+    }
 
+    /**
+     * Partially updates a marché from a JSON Merge Patch: only the fields present in the patch
+     * change (an explicit {@code null} clears one), and only those columns are written.
+     * The warranty end of its materiels follows as in {@link #updateMarche}.
+     *
+     * @param expectedVersion the version the client's patch is based on ({@code If-Match}), or {@code null} to skip the check
+     * @throws IllegalArgumentException if the patch is not an object of {@link MarcheUpdateDto} fields, or
+     * clears a required field ({@code titre_marche}, {@code id_matricule}, {@code societe})
+     * @throws VersionConflictException if {@code expectedVersion} is not the stored version
+     */
+    @Transactional
+    public Marche patchMarche(Long id, JsonNode patch, Long expectedVersion) {
+        Marche marche = getMarcheById(id);
+        VersionConflictException.check("Marche", id, expectedVersion, marche.getVersion());
+        LocalDate previousReception = marche.getDate_reception();
+        LocalDate previousWarrantyEnd = marche.getWarranty_end();
+
+        MarcheUpdateDto current = new MarcheUpdateDto();
+        current.setTitre_marche(marche.getTitre_marche());
+        current.setId_matricule(marche.getId_matricule());
+        current.setSociete(marche.getSociete());
+        current.setDate_ordre_service(marche.getDate_ordre_service());
+        current.setDate_execution(marche.getDate_execution());
+        current.setDate_reception(marche.getDate_reception());
+        current.setGarantie_duree(marche.getGarantie_duree());
+        current.setGarantie_unite(marche.getGarantie_unite());
+        MarcheUpdateDto patched = MergePatch.apply(objectMapper, patch, current);
+        if (patched.getTitre_marche() == null || patched.getId_matricule() == null || patched.getSociete() == null) {
+            throw new IllegalArgumentException("One or more required fields are null.");
+        }
+
+        // unchanged values are set back as they were, so Hibernate does not see them as dirty
+        marche.setTitre_marche(patched.getTitre_marche());
+        marche.setId_matricule(patched.getId_matricule());
+        marche.setSociete(patched.getSociete());
+        marche.setDate_ordre_service(patched.getDate_ordre_service());
+        marche.setDate_execution(patched.getDate_execution());
+        marche.setDate_reception(patched.getDate_reception());
+        marche.setGarantie_duree(patched.getGarantie_duree());
+        marche.setGarantie_unite(patched.getGarantie_unite());
+        return saveUpdated(marche, previousReception, previousWarrantyEnd);
+    }
+
+    private Marche saveUpdated(Marche marche, LocalDate previousReception, LocalDate previousWarrantyEnd) {
+        marche.updateWarrantyEnd();
+
+        if (!Objects.equals(previousWarrantyEnd, marche.getWarranty_end())) {
+            materielRepository.inheritWarrantyEnd(marche.getId(), marche.getWarranty_end());
+        }
+        if (!Objects.equals(previousReception, marche.getDate_reception())) {
+            materielRepository.findWithOwnWarrantyByMarcheId(marche.getId()).forEach(Materiel::updateWarrantyEnd);
+        }
         return marcheRepository.save(marche);
     }
 
@@ -55,8 +167,11 @@ public class MarcheService {
         marcheRepository.delete(marche);
     }
 
-    public List<String> getDistinctSocietes() {
-        return marcheRepository.findDistinctSocietes();
+    /**
+     * Returns the distinct sociétés from the vocabulary cache, with the ETag of that list.
+     */
+    public VocabularyCache.Snapshot getDistinctSocietes() {
+        return vocabularyCache.get(Vocabulary.SOCIETE);
     }
 
     public void someMethod(Marche marche) {
@@ -0,0 +1,268 @@
+package com.dgapr.demo.Service;
+
+import com.dgapr.demo.Audit.AuditDetails;
+import com.dgapr.demo.Audit.AuditEvent;
+import com.dgapr.demo.Dto.MaterielDto;
+import com.dgapr.demo.Dto.MarcheDto.MarcheWarrantyBasis;
+import com.dgapr.demo.Dto.MaterielImportReport;
+import com.dgapr.demo.Model.Materiel;
+import com.dgapr.demo.Repository.MarcheRepository;
+import com.dgapr.demo.Repository.MaterielRepository;
+import com.dgapr.demo.Util.CsvParser;
+import com.dgapr.demo.Vocabulary.Vocabulary;
+import com.dgapr.demo.Vocabulary.VocabularyCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk import of {@link Materiel} rows, from a JSON array or a streamed CSV file.
+ *
+ * <p>Rows are processed in chunks of {@code materiel.import.batch-size}. For each chunk, the referenced
+ * marché ids and the serial numbers are checked with one {@code IN} query each, and the valid rows are
+ * inserted with a single JDBC batch. Hibernate cannot batch inserts into the IDENTITY-keyed
+ * {@code materiel} table, so the insert goes through {@link JdbcTemplate}.</p>
+ *
+ * <p>Invalid rows (missing or duplicate {@code numero_serie}, unknown {@code marcheId}, unparsable CSV
+ * values) are skipped and reported; the whole import runs in one transaction.</p>
+ *
+ * <p>The {@code warranty_end} column, normally derived by {@link Materiel}'s entity
+ * callbacks, is computed here from the marché columns loaded by the id lookup.</p>
+ *
+ * <p>JDBC inserts bypass Hibernate's events, so the imported {@code type_equipement} and {@code gamme}
+ * values are handed to {@link VocabularyCache} explicitly, to be applied after commit. For the same
+ * reason, and to keep the audit cost of an import constant, a single {@code BULK_CREATE} audit event
+ * summarises the run instead of one entry per materiel.</p>
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MaterielImportService {
+
+    private static final String TABLE = "materiel";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO materiel (type_equipement, gamme, numero_serie, emplacement, garantie_duree, garantie_unite, " +
+            "warranty_end, marche_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MarcheRepository marcheRepository;
+    private final MaterielRepository materielRepository;
+    private final VocabularyCache vocabularyCache;
+    private final ApplicationEventPublisher publisher;
+    private final AuditorAware<String> auditorProvider;
+
+    /**
+     * Rows per chunk: one lookup per chunk and one JDBC batch per chunk. Kept well below
+     * SQL Server's limit of 2100 parameters per statement for the {@code IN} lookups.
+     */
+    @Value("${materiel.import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Imports materiels from an already parsed JSON array.
+     *
+     * @param dtos the rows to import
+     * @return the per-row import report
+     */
+    @Transactional
+    public MaterielImportReport importMateriels(List<MaterielDto> dtos) {
+        ImportRun run = new ImportRun();
+        List<Row> chunk = new ArrayList<>(Math.min(batchSize, dtos.size()));
+        for (int i = 0; i < dtos.size(); i++) {
+            chunk.add(new Row(i + 1, dtos.get(i), null));
+            if (chunk.size() == batchSize) {
+                run.process(chunk);
+                chunk.clear();
+            }
+        }
+        run.process(chunk);
+        return run.report();
+    }
+
+    /**
+     * Imports materiels from a CSV stream, reading it line by line so the file is never held in memory.
+     * The first line is a header naming the columns: {@code type_equipement, gamme, numero_serie,
+     * emplacement, garantie_duree, garantie_unite, marcheId}.
+     *
+     * @param reader the CSV content
+     * @return the per-row import report
+     * @throws IOException if the stream cannot be read
+     */
+    @Transactional
+    public MaterielImportReport importCsv(Reader reader) throws IOException {
+        ImportRun run = new ImportRun();
+        BufferedReader lines = new BufferedReader(reader);
+        String headerLine = lines.readLine();
+        if (headerLine == null) {
+            return run.report();
+        }
+        Map<String, Integer> header = CsvParser.parseHeader(headerLine);
+
+        List<Row> chunk = new ArrayList<>(batchSize);
+        int rowNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) continue;
+            rowNumber++;
+            chunk.add(parseCsvRow(rowNumber, CsvParser.parseLine(line), header));
+            if (chunk.size() == batchSize) {
+                run.process(chunk);
+                chunk.clear();
+            }
+        }
+        run.process(chunk);
+        return run.report();
+    }
+
+    private static Row parseCsvRow(int rowNumber, List<String> fields, Map<String, Integer> header) {
+        MaterielDto dto = new MaterielDto();
+        dto.setType_equipement(CsvParser.field(fields, header, "type_equipement"));
+        dto.setGamme(CsvParser.field(fields, header, "gamme"));
+        dto.setNumero_serie(CsvParser.field(fields, header, "numero_serie"));
+        dto.setEmplacement(CsvParser.field(fields, header, "emplacement"));
+        dto.setGarantie_unite(CsvParser.field(fields, header, "garantie_unite"));
+        try {
+            String duree = CsvParser.field(fields, header, "garantie_duree");
+            dto.setGarantie_duree(duree == null ? null : Integer.valueOf(duree));
+            String marcheId = CsvParser.field(fields, header, "marcheId");
+            dto.setMarcheId(marcheId == null ? null : Long.valueOf(marcheId));
+        } catch (NumberFormatException e) {
+            return new Row(rowNumber, dto, "Invalid number: " + e.getMessage());
+        }
+        return new Row(rowNumber, dto, null);
+    }
+
+    /**
+     * One input row with its 1-based position and, if parsing already failed, the reason.
+     */
+    private record Row(int number, MaterielDto dto, String parseError) { }
+
+    /**
+     * State of one import: ids and serial numbers already resolved, and the running report.
+     */
+    private final class ImportRun {
+        private final Map<Long, MarcheWarrantyBasis> knownMarches = new HashMap<>();
+        private final Set<Long> missingMarcheIds = new HashSet<>();
+        private final Set<String> seenSerials = new HashSet<>();
+        private final List<MaterielImportReport.RowError> errors = new ArrayList<>();
+        private int received;
+        private int imported;
+
+        void process(List<Row> chunk) {
+            if (chunk.isEmpty()) return;
+            received += chunk.size();
+
+            // 1. Resolve the marché ids (with their warranty columns) of this chunk that were not seen before, in one query
+            Set<Long> unresolved = new HashSet<>();
+            Set<String> serials = new HashSet<>();
+            for (Row row : chunk) {
+                Long marcheId = row.dto().getMarcheId();
+                if (marcheId != null && !knownMarches.containsKey(marcheId) && !missingMarcheIds.contains(marcheId)) {
+                    unresolved.add(marcheId);
+                }
+                if (row.dto().getNumero_serie() != null) {
+                    serials.add(row.dto().getNumero_serie().trim());
+                }
+            }
+            if (!unresolved.isEmpty()) {
+                for (MarcheWarrantyBasis basis : marcheRepository.findWarrantyBases(unresolved)) {
+                    knownMarches.put(basis.id(), basis);
+                    unresolved.remove(basis.id());
+                }
+                missingMarcheIds.addAll(unresolved);
+            }
+
+            // 2. Serial numbers of this chunk already in the database, in one query
+            Set<String> existingSerials = serials.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(materielRepository.findExistingNumeroSeries(serials));
+
+            // 3. Validate each row against the resolved sets
+            List<MaterielDto> valid = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                String error = validate(row, existingSerials);
+                if (error == null) {
+                    valid.add(row.dto());
+                } else {
+                    errors.add(new MaterielImportReport.RowError(row.number(), row.dto().getNumero_serie(), error));
+                }
+            }
+
+            // 4. Insert the valid rows with one JDBC batch
+            if (!valid.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, valid, valid.size(), (ps, dto) -> {
+                    ps.setString(1, dto.getType_equipement());
+                    ps.setString(2, dto.getGamme());
+                    ps.setString(3, dto.getNumero_serie().trim());
+                    ps.setString(4, dto.getEmplacement());
+                    ps.setObject(5, dto.getGarantie_duree(), Types.INTEGER);
+                    ps.setString(6, dto.getGarantie_unite());
+                    MarcheWarrantyBasis marche = knownMarches.get(dto.getMarcheId());
+                    LocalDate warrantyEnd = Materiel.warrantyEnd(marche.date_reception(), marche.warranty_end(),
+                            dto.getGarantie_duree(), dto.getGarantie_unite());
+                    ps.setDate(7, warrantyEnd == null ? null : Date.valueOf(warrantyEnd));
+                    ps.setLong(8, dto.getMarcheId());
+                });
+                imported += valid.size();
+                vocabularyCache.applyInsertsAfterCommit(Vocabulary.TYPE_EQUIPEMENT,
+                        valid.stream().map(MaterielDto::getType_equipement).toList());
+                vocabularyCache.applyInsertsAfterCommit(Vocabulary.GAMME,
+                        valid.stream().map(MaterielDto::getGamme).toList());
+            }
+            log.debug("Materiel import chunk: {} rows, {} inserted", chunk.size(), valid.size());
+        }
+
+        private String validate(Row row, Set<String> existingSerials) {
+            if (row.parseError() != null) return row.parseError();
+            MaterielDto dto = row.dto();
+            String serial = dto.getNumero_serie() == null ? null : dto.getNumero_serie().trim();
+            if (serial == null || serial.isEmpty()) return "numero_serie is required";
+            if (dto.getMarcheId() == null) return "marcheId is required";
+            if (missingMarcheIds.contains(dto.getMarcheId())) return "Marche not found " + dto.getMarcheId();
+            if (existingSerials.contains(serial)) return "numero_serie already exists";
+            if (!seenSerials.add(serial)) return "Duplicate numero_serie in import";
+            return null;
+        }
+
+        MaterielImportReport report() {
+            publishAudit();
+            log.info("Materiel import finished: {} received, {} imported, {} rejected", received, imported, errors.size());
+            return new MaterielImportReport(received, imported, List.copyOf(errors));
+        }
+
+        /**
+         * Publishes one aggregated audit event for the whole import instead of one per materiel.
+         */
+        private void publishAudit() {
+            if (imported == 0) return;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("received", received);
+            summary.put("imported", imported);
+            summary.put("rejected", errors.size());
+            String user = auditorProvider.getCurrentAuditor().orElse("SYSTEM");
+            publisher.publishEvent(new AuditEvent(this, TABLE, "IMPORT-" + UUID.randomUUID(), "BULK_CREATE",
+                    AuditDetails.snapshot(summary), user));
+        }
+    }
+}
@@ -2,16 +2,25 @@ package com.dgapr.demo.Service;
 
 
 
+import com.dgapr.demo.Dto.MarcheDto.MarcheResponseDto;
+import com.dgapr.demo.Dto.MaterielResponseDto;
 import com.dgapr.demo.Model.Marche;
 import com.dgapr.demo.Model.Materiel;
 import com.dgapr.demo.Repository.MaterielRepository;
 import com.dgapr.demo.Repository.MarcheRepository;
+import com.dgapr.demo.Vocabulary.Vocabulary;
+import com.dgapr.demo.Vocabulary.VocabularyCache;
+import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 
 import com.dgapr.demo.Dto.MaterielDto;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,32 +31,85 @@ public class MaterielService {
 
     @Autowired
     private MarcheRepository marcheRepository;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    @Autowired
+    private VocabularyCache vocabularyCache;
     
 
     public Materiel saveMateriel(Materiel materiel) {
         return materielRepository.save(materiel);
     }
 
-    public List<Materiel> getAllMateriels() {
-        return materielRepository.findAll();
+    /**
+     * Lists all materiels in a single query.
+     *
+     * @param withMarche {@code true} to fetch-join and embed the full owning marché,
+     * {@code false} to return only its id and title.
+     */
+    public List<MaterielResponseDto> getAllMateriels(boolean withMarche) {
+        if (withMarche) {
+            return materielRepository.findAllWithMarche().stream().map(this::toDtoWithMarche).toList();
+        }
+        return materielRepository.findAllProjected();
+    }
+
+    /**
+     * Reads only the versions of a materiel and of its marché, for ETag checks that must not load them.
+     */
+    public Optional<MaterielRepository.Versions> getMaterielVersions(Long id) {
+        return materielRepository.findVersionsById(id);
     }
 
-    public Optional<Materiel> getMaterielById(Long id) {
-        return materielRepository.findById(id);
+    public Optional<MaterielResponseDto> getMaterielById(Long id) {
+        return materielRepository.findProjectedById(id);
     }
 
-    public List<Materiel> getMaterielsByMarcheId(Long marcheId) {
-        return materielRepository.findByMarcheId(marcheId);
+    /**
+     * Lists the materiels of one marché in a single query.
+     *
+     * @param withMarche {@code true} to fetch-join and embed the full owning marché,
+     * {@code false} to return only its id and title.
+     */
+    public List<MaterielResponseDto> getMaterielsByMarcheId(Long marcheId, boolean withMarche) {
+        if (withMarche) {
+            return materielRepository.findWithMarcheByMarcheId(marcheId).stream().map(this::toDtoWithMarche).toList();
+        }
+        return materielRepository.findProjectedByMarcheId(marcheId);
+    }
+
+    /**
+     * Lists the materiels whose warranty ends between {@code from} and {@code to} (inclusive),
+     * soonest first, through the indexed {@code warranty_end} column.
+     *
+     * @throws IllegalArgumentException if {@code from} is after {@code to}.
+     */
+    public Page<MaterielResponseDto> getMaterielsByWarrantyEnd(LocalDate from, LocalDate to, Pageable pageable) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid warranty range: 'from' (" + from + ") is after 'to' (" + to + ").");
+        }
+        // the query orders by warranty_end itself; only the page bounds are taken from the request
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return materielRepository.findProjectedByWarrantyEndBetween(from, to, page);
     }
 
     public void deleteMateriel(Long id) {
         materielRepository.deleteById(id);
     }
-    public List<String> getAllTypeEquipements() {
-        return materielRepository.findDistinctTypeEquipement();
+    /**
+     * Returns the distinct equipment types from the vocabulary cache, with the ETag of that list.
+     */
+    public VocabularyCache.Snapshot getAllTypeEquipements() {
+        return vocabularyCache.get(Vocabulary.TYPE_EQUIPEMENT);
     }
-    public List<String> getAllGammes() {
-        return materielRepository.findDistinctGamme();
+
+    /**
+     * Returns the distinct gammes from the vocabulary cache, with the ETag of that list.
+     */
+    public VocabularyCache.Snapshot getAllGammes() {
+        return vocabularyCache.get(Vocabulary.GAMME);
     }
 
     public void createMateriel(MaterielDto dto)
@@ -69,6 +131,24 @@ public class MaterielService {
         // Save the Materiel entity
         materielRepository.save(materiel);
     }
+    /**
+     * Maps a materiel whose marché was fetch-joined, embedding the full marché.
+     */
+    private MaterielResponseDto toDtoWithMarche(Materiel materiel) {
+        Marche marche = materiel.getMarche();
+        MaterielResponseDto dto = new MaterielResponseDto(
+                materiel.getId(), materiel.getType_equipement(), materiel.getGamme(),
+                materiel.getNumero_serie(), materiel.getEmplacement(),
+                materiel.getGarantie_duree(), materiel.getGarantie_unite(), materiel.getWarranty_end(), materiel.getVersion(),
+                marche != null ? marche.getId() : null,
+                marche != null ? marche.getTitre_marche() : null,
+                marche != null ? marche.getVersion() : null);
+        if (marche != null) {
+            dto.setMarche(modelMapper.map(marche, MarcheResponseDto.class));
+        }
+        return dto;
+    }
+
      public void someMethod(Materiel materiel) {
         System.out.println("Garantie durée: " + materiel.getGarantie_duree());
         System.out.println("Unité de garantie: " + materiel.getGarantie_unite());
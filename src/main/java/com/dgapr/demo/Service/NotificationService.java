@@ -11,6 +11,7 @@ import com.dgapr.demo.Repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.scheduling.annotation.Async;
@@ -153,15 +154,28 @@ public class NotificationService {
     @Async
     public void sendEmailAsync(List<String> recipients, String subject, String body) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(recipients.toArray(new String[0]));
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-            log.info("Notification email sent to admins");
+            sendEmail(recipients, subject, body);
         } catch (Exception e) {
             log.error("Failed to send notification email", e);
         }
     }
+
+    /**
+     * Sends an email to the specified recipients on the caller's thread, for callers that must know
+     * whether it was sent.
+     *
+     * @param recipients List of recipient email addresses
+     * @param subject Email subject
+     * @param body Email body content
+     * @throws MailException if the email could not be sent
+     */
+    public void sendEmail(List<String> recipients, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(recipients.toArray(new String[0]));
+        message.setSubject(subject);
+        message.setText(body);
+        mailSender.send(message);
+        log.info("Notification email sent to admins");
+    }
 }
 
@@ -2,6 +2,7 @@ package com.dgapr.demo.Service;
 
 import com.dgapr.demo.Dto.UserDto.UserDto;
 import com.dgapr.demo.Dto.UserDto.UserResponseDto;
+import com.dgapr.demo.Exception.VersionConflictException;
 import com.dgapr.demo.Model.User.User;
 import com.dgapr.demo.Model.User.UserStatu;
 import com.dgapr.demo.Repository.UserRepository;
@@ -18,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -42,6 +44,13 @@ public class UserService {
         return page.map(u -> modelMapper.map(u, UserResponseDto.class));
     }
 
+    /**
+     * Reads only the version of a user, for ETag checks that must not load the entity.
+     */
+    public Optional<Long> getUserVersion(UUID id) {
+        return userRepository.findVersionById(id);
+    }
+
     public UserResponseDto getUserById(UUID id) throws EntityNotFoundException {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
@@ -76,11 +85,17 @@ public class UserService {
         return modelMapper.map(userRepository.save(user), UserDto.class);
     }
 
+    /**
+     * Updates a user. When {@code expectedVersion} is given ({@code If-Match}), the update is rejected
+     * with a {@link VersionConflictException} if the user was modified since that version was read;
+     * a concurrent commit after the check is caught by Hibernate's version check at flush.
+     */
     @Transactional
-    public UserDto updateUser(UUID id, UserDto userDto) {
+    public UserDto updateUser(UUID id, UserDto userDto, Long expectedVersion) {
         log.debug("Updating user {} with data: {}", id, userDto);
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        VersionConflictException.check("User", id, expectedVersion, user.getVersion());
         Map<String, String> validationErrors = new java.util.HashMap<>();
         if (!user.getUsername().equals(userDto.getUsername()) &&
                 userRepository.existsByUsername(userDto.getUsername().trim().toLowerCase())) {
@@ -104,7 +119,8 @@ public class UserService {
             user.setTokenVersion(user.getTokenVersion() + 1);
             log.info("Password changed for user {}. Token version incremented to {}.", user.getUsername(), user.getTokenVersion());
         }
-        User updatedUser = userRepository.save(user);
+        // flush now so the returned version is the one this update wrote
+        User updatedUser = userRepository.saveAndFlush(user);
         log.debug("Saving updated user: {}", updatedUser);
         return modelMapper.map(updatedUser, UserDto.class);
     }
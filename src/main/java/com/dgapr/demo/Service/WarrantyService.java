@@ -0,0 +1,169 @@
+package com.dgapr.demo.Service;
+
+import com.dgapr.demo.Dto.MaterielResponseDto;
+import com.dgapr.demo.Model.Marche;
+import com.dgapr.demo.Model.Materiel;
+import com.dgapr.demo.Model.User.Role;
+import com.dgapr.demo.Model.User.UserStatu;
+import com.dgapr.demo.Model.WarrantyNotification;
+import com.dgapr.demo.Repository.MarcheRepository;
+import com.dgapr.demo.Repository.MaterielRepository;
+import com.dgapr.demo.Repository.UserRepository;
+import com.dgapr.demo.Repository.WarrantyNotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains and reports on the derived {@code warranty_end} of marchés and materiels.
+ *
+ * <p>
+ * Main responsibilities:
+ * <ul>
+ *   <li>Back-fill {@code warranty_end} at startup for rows written before the column existed</li>
+ *   <li>Alert admin users about materiels whose warranty ends within {@code warranty.alert.days-before} days</li>
+ *   <li>Record alerts once the email is sent, to avoid duplicates; an alert that could not be sent is
+ *       retried by the next run</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Both jobs walk the tables in chunks of {@code warranty.alert.batch-size} rows with keyset pagination on
+ * the id, each chunk in its own short transaction, and select rows through the {@code warranty_end} index
+ * rather than filtering in memory.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WarrantyService {
+    private final MarcheRepository marcheRepository;
+    private final MaterielRepository materielRepository;
+    private final WarrantyNotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final String BEFORE_WARRANTY_END = "BEFORE_WARRANTY_END";
+
+    @Value("${warranty.alert.days-before:60}")
+    private int daysBefore;
+
+    @Value("${warranty.alert.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Derives the warranty end of existing rows that do not have one yet and whose inputs allow it:
+     * marchés first, since materiels without their own warranty inherit the marché's. Rows written since
+     * are derived on save, so after the first run only rows whose inputs were completed out of band remain.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillWarrantyEnds() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        PageRequest chunk = PageRequest.of(0, batchSize);
+
+        int marches = 0;
+        long afterId = 0;
+        List<Marche> marcheChunk;
+        do {
+            long from = afterId;
+            marcheChunk = Objects.requireNonNull(tx.execute(status -> {
+                List<Marche> rows = marcheRepository.findWithoutWarrantyEnd(from, chunk);
+                rows.forEach(Marche::updateWarrantyEnd);
+                return rows;
+            }));
+            marches += marcheChunk.size();
+            if (!marcheChunk.isEmpty()) afterId = marcheChunk.get(marcheChunk.size() - 1).getId();
+        } while (marcheChunk.size() == batchSize);
+
+        int materiels = 0;
+        afterId = 0;
+        List<Materiel> materielChunk;
+        do {
+            long from = afterId;
+            materielChunk = Objects.requireNonNull(tx.execute(status -> {
+                List<Materiel> rows = materielRepository.findWithoutWarrantyEnd(from, chunk);
+                rows.forEach(Materiel::updateWarrantyEnd);
+                return rows;
+            }));
+            materiels += materielChunk.size();
+            if (!materielChunk.isEmpty()) afterId = materielChunk.get(materielChunk.size() - 1).getId();
+        } while (materielChunk.size() == batchSize);
+
+        if (marches > 0 || materiels > 0) {
+            log.info("Warranty end back-filled: {} marchés and {} materiels examined", marches, materiels);
+        }
+    }
+
+    /**
+     * Scheduled task that alerts admin users about materiels whose warranty ends within the configured
+     * number of days and that were not reported yet. The email is sent synchronously and the alerts are
+     * only recorded once it was, so a failed send leaves them to the next run rather than losing them.
+     */
+    @Scheduled(cron = "${warranty.alert.cron:0 0 7 * * MON}")
+    public void sendWarrantyEndNotifications() {
+        log.info("Scheduled warranty notification task triggered");
+        List<String> adminEmails = userRepository.findEmailsByRolesAndStatus(
+                List.of(Role.ADMIN, Role.SUPER_ADMIN), UserStatu.ACTIVE);
+        if (adminEmails.isEmpty()) return;
+
+        LocalDate today = LocalDate.now();
+        LocalDate limit = today.plusDays(daysBefore);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        PageRequest chunk = PageRequest.of(0, batchSize);
+
+        StringBuilder lines = new StringBuilder();
+        List<WarrantyNotification> notifications = new ArrayList<>();
+        long afterId = 0;
+        List<MaterielResponseDto> rows;
+        do {
+            long from = afterId;
+            rows = Objects.requireNonNull(tx.execute(status -> materielRepository.findWarrantyEndingNotNotified(
+                    today, limit, BEFORE_WARRANTY_END, from, chunk)));
+            for (MaterielResponseDto m : rows) {
+                lines.append(String.format("- %s %s (N° série: %s, marché: %s), garantie jusqu'au %s\n",
+                        Objects.toString(m.getType_equipement(), ""), Objects.toString(m.getGamme(), ""),
+                        m.getNumero_serie(), Objects.toString(m.getTitre_marche(), "-"), m.getWarranty_end()));
+                notifications.add(notification(m, today));
+            }
+            if (!rows.isEmpty()) afterId = rows.get(rows.size() - 1).getId();
+        } while (rows.size() == batchSize);
+
+        if (notifications.isEmpty()) return;
+        String body = "Bonjour,\n\nLa garantie des équipements suivants se termine dans " + daysBefore +
+                " jours ou moins :\n\n" + lines +
+                "\nMerci de prendre les mesures nécessaires.\n\nCeci est un message automatique.";
+        try {
+            notificationService.sendEmail(adminEmails, "[Notification] Équipements en fin de garantie", body);
+        } catch (MailException e) {
+            log.error("Warranty end notification for {} materiels not sent; retried on the next run",
+                    notifications.size(), e);
+            return;
+        }
+        for (int i = 0; i < notifications.size(); i += batchSize) {
+            List<WarrantyNotification> sent = notifications.subList(i, Math.min(i + batchSize, notifications.size()));
+            tx.executeWithoutResult(status -> notificationRepository.saveAll(sent));
+        }
+        log.info("Warranty end notification sent for {} materiels", notifications.size());
+    }
+
+    private static WarrantyNotification notification(MaterielResponseDto materiel, LocalDate today) {
+        WarrantyNotification notification = new WarrantyNotification();
+        notification.setMaterielId(materiel.getId());
+        notification.setNotificationType(BEFORE_WARRANTY_END);
+        notification.setWarrantyEnd(materiel.getWarranty_end());
+        notification.setNotifiedAt(today);
+        return notification;
+    }
+}
@@ -0,0 +1,160 @@
+package com.dgapr.demo.Specification;
+
+import com.dgapr.demo.Model.Marche;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A Spring Data JPA {@link Specification} for the {@link Marche} entity.
+ * This class dynamically builds predicates for filtering marchés based on provided
+ * request parameters, supporting global search, column-specific filtering and date ranges.
+ *
+ * <ul>
+ * <li>**Text filters**: titre_marche, id_matricule, societe (case-insensitive 'LIKE')</li>
+ * <li>**Date filters**: date_ordre_service, date_execution, date_reception, warranty_end (exact match, expects 'YYYY-MM-DD' format)</li>
+ * <li>**Date ranges**: the same date fields suffixed with {@code From} / {@code To} (inclusive bounds),
+ * e.g. {@code date_receptionFrom=2024-01-01&date_receptionTo=2024-12-31}</li>
+ * <li>**Warranty filters**: garantie_duree (exact match), garantie_unite (case-insensitive exact match)</li>
+ * <li>**Global search**: searches across all defined text fields</li>
+ * </ul>
+ */
+public class MarcheSpecification implements Specification<Marche> {
+
+    private static final String FROM_SUFFIX = "From";
+    private static final String TO_SUFFIX = "To";
+
+    private final Map<String, String> filterParams;
+
+    public MarcheSpecification(Map<String, String> filterParams) {
+        this.filterParams = Objects.requireNonNullElse(filterParams, Map.of());
+    }
+
+    /**
+     * Creates a {@link Predicate} combining the column filters and the global search with a logical AND.
+     *
+     * @param root The root type in the FROM clause, representing the {@link Marche} entity.
+     * @param query The query being constructed.
+     * @param cb The criteria builder.
+     * @return A {@link Predicate} that combines all filtering conditions with a logical AND.
+     * @throws IllegalArgumentException if an invalid date or number is provided for a filter.
+     */
+    @Override
+    public Predicate toPredicate(@NonNull Root<Marche> root,
+                                 CriteriaQuery<?> query,
+                                 @NonNull CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        filterParams.forEach((key, value) -> {
+            if (shouldIgnoreKey(key) || !StringUtils.hasText(value)) return;
+            switch (key) {
+                // Text fields: apply case-insensitive 'LIKE' (contains) filter
+                case "titre_marche":
+                case "id_matricule":
+                case "societe":
+                    predicates.add(cb.like(cb.lower(root.get(key)), "%" + value.toLowerCase() + "%"));
+                    break;
+                // Date fields: exact match
+                case "date_ordre_service":
+                case "date_execution":
+                case "date_reception":
+                case "warranty_end":
+                    predicates.add(cb.equal(root.get(key), parseDate(key, value)));
+                    break;
+                // Date ranges: inclusive lower / upper bounds
+                case "date_ordre_serviceFrom":
+                case "date_executionFrom":
+                case "date_receptionFrom":
+                case "warranty_endFrom":
+                    predicates.add(cb.greaterThanOrEqualTo(
+                            root.get(stripSuffix(key, FROM_SUFFIX)), parseDate(key, value)));
+                    break;
+                case "date_ordre_serviceTo":
+                case "date_executionTo":
+                case "date_receptionTo":
+                case "warranty_endTo":
+                    predicates.add(cb.lessThanOrEqualTo(
+                            root.get(stripSuffix(key, TO_SUFFIX)), parseDate(key, value)));
+                    break;
+                // Warranty fields
+                case "garantie_duree":
+                    predicates.add(cb.equal(root.get(key), parseInteger(key, value)));
+                    break;
+                case "garantie_unite":
+                    predicates.add(cb.equal(cb.lower(root.get(key)), value.toLowerCase()));
+                    break;
+            }
+        });
+
+        applyGlobalSearch(predicates, root, cb);
+
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Checks if a given filter key is a pagination, sorting or global search parameter.
+     *
+     * @param key The filter parameter key.
+     * @return {@code true} if the key should be ignored, {@code false} otherwise.
+     */
+    private boolean shouldIgnoreKey(String key) {
+        return key.equals("globalSearch") || key.equals("page") || key.equals("size") || key.startsWith("sort");
+    }
+
+    private static String stripSuffix(String key, String suffix) {
+        return key.substring(0, key.length() - suffix.length());
+    }
+
+    /**
+     * Parses a 'YYYY-MM-DD' filter value.
+     *
+     * @throws IllegalArgumentException if the date string cannot be parsed into a {@link LocalDate}.
+     */
+    private static LocalDate parseDate(String key, String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format for filter '" + key + "': '" + value + "'. Expected YYYY-MM-DD.", e);
+        }
+    }
+
+    /**
+     * Parses an integer filter value.
+     *
+     * @throws IllegalArgumentException if the value is not a valid integer.
+     */
+    private static Integer parseInteger(String key, String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for filter '" + key + "': '" + value + "'.", e);
+        }
+    }
+
+    /**
+     * Applies a global search predicate across the text fields.
+     * The search term will match if it appears (case-insensitively) in any of them.
+     */
+    private void applyGlobalSearch(List<Predicate> predicates, Root<Marche> root, CriteriaBuilder cb) {
+        String globalSearchTerm = filterParams.get("globalSearch");
+        if (StringUtils.hasText(globalSearchTerm)) {
+            String term = "%" + globalSearchTerm.toLowerCase() + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(root.get("titre_marche")), term),
+                    cb.like(cb.lower(root.get("id_matricule")), term),
+                    cb.like(cb.lower(root.get("societe")), term)
+            ));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.dgapr.demo.Util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal RFC 4180 style CSV line parser used by the bulk import endpoints.
+ * Fields may be quoted with {@code "}; a doubled quote inside a quoted field is a literal quote.
+ * Both {@code ,} and {@code ;} are accepted as separators (the latter is what spreadsheet
+ * exports produce in French locales).
+ */
+public final class CsvParser {
+
+    private CsvParser() {
+    }
+
+    /**
+     * Splits one CSV line into its fields. Empty fields are returned as {@code null}.
+     *
+     * @param line the raw line, without its line terminator
+     * @return the parsed fields
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',' || c == ';') {
+                fields.add(emptyToNull(current));
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(emptyToNull(current));
+        return fields;
+    }
+
+    /**
+     * Maps header names (trimmed, case-sensitive) to their column index.
+     *
+     * @param headerLine the first line of the file
+     * @return column index by header name
+     */
+    public static Map<String, Integer> parseHeader(String headerLine) {
+        List<String> names = parseLine(headerLine.startsWith("\uFEFF") ? headerLine.substring(1) : headerLine);
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i) != null) {
+                index.put(names.get(i), i);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the field of the given column, or {@code null} if the column is absent or the line is short.
+     */
+    public static String field(List<String> fields, Map<String, Integer> header, String column) {
+        Integer i = header.get(column);
+        return (i == null || i >= fields.size()) ? null : fields.get(i);
+    }
+
+    private static String emptyToNull(StringBuilder sb) {
+        String value = sb.toString().trim();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,94 @@
+package com.dgapr.demo.Util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Helpers for the entity tags used by conditional requests.
+ *
+ * <p>For entities, the tag is the JPA {@code @Version} column as a strong tag ({@code "<version>"}),
+ * which the controllers read with a single-column query before deciding whether to load and
+ * serialise the entity at all. The same tag, sent back in {@code If-Match}, is the version an
+ * update is based on (optimistic locking). {@code If-Match} uses the strong comparison of RFC 9110
+ * (section 13.1.1), so a weak tag there never matches and is rejected; {@code If-None-Match} uses the
+ * weak comparison, so the weak tags of derived representations and older clients still revalidate.</p>
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * @param version an entity version
+     * @return the strong ETag for that version
+     */
+    public static String of(Long version) {
+        return "\"" + (version == null ? 0L : version) + "\"";
+    }
+
+    /**
+     * Tag for a representation that also embeds data of a parent entity, so that it changes when
+     * either entity does. It is weak, as it is only meant for {@code If-None-Match}.
+     *
+     * @param version       the entity version
+     * @param parentVersion the parent's version, {@code null} if there is no parent
+     * @return the weak ETag for that pair of versions
+     */
+    public static String of(Long version, Long parentVersion) {
+        return "W/\"" + (version == null ? 0L : version) + (parentVersion == null ? "" : "-" + parentVersion) + "\"";
+    }
+
+    /**
+     * Checks an {@code If-None-Match} header against a tag, using the weak comparison of RFC 9110
+     * (the {@code W/} prefixes are ignored).
+     *
+     * @param ifNoneMatch the header value, possibly {@code null} or a comma-separated list
+     * @param etag        the current tag of the resource
+     * @return {@code true} if the client's copy is current
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        String current = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(current)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the entity version a client based its update on from an {@code If-Match} header.
+     *
+     * @param ifMatch the header value, e.g. {@code "3"}
+     * @return the version, or {@code null} if the header is absent or {@code *} (no precondition)
+     * @throws IllegalArgumentException if the header is not a single strong entity tag holding a version;
+     *                                  a weak tag cannot match under the strong comparison {@code If-Match} requires
+     */
+    public static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new IllegalArgumentException("Weak ETag '" + ifMatch + "' in If-Match. Send the strong ETag of the copy being edited, such as \"3\".");
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Invalid If-Match header '" + ifMatch + "'. Expected a single ETag such as \"3\".");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header '" + ifMatch + "'. Expected a single ETag such as \"3\".", e);
+        }
+    }
+
+    /**
+     * @param etag the current tag of the resource
+     * @return a 304 Not Modified response carrying the tag and no body
+     */
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
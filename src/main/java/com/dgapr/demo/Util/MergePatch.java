@@ -0,0 +1,48 @@
+package com.dgapr.demo.Util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7396) to the update DTO of a resource.
+ *
+ * <p>Only the members present in the patch are written onto the target: an absent member leaves the
+ * field as it is, an explicit {@code null} clears it. The target is expected to be a flat DTO
+ * pre-filled from the current entity, so the result is the complete new state of the resource and
+ * the service can apply it with the same code as a full update.</p>
+ */
+public final class MergePatch {
+
+    /** Media type of RFC 7396 patch documents. */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private MergePatch() {
+    }
+
+    /**
+     * @param mapper the application's object mapper
+     * @param patch  the merge patch document
+     * @param target the DTO holding the current state, updated in place
+     * @return {@code target}
+     * @throws IllegalArgumentException if the patch is not a JSON object, names an unknown field or
+     *                                  holds a value of the wrong type
+     */
+    public static <T> T apply(ObjectMapper mapper, JsonNode patch, T target) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Invalid merge patch. Expected a JSON object.");
+        }
+        try {
+            return mapper.readerForUpdating(target)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid merge patch: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid merge patch: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.dgapr.demo.Util;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Computes the end of a warranty from its start date and its {@code garantie_duree} /
+ * {@code garantie_unite} pair, as stored on {@link com.dgapr.demo.Model.Marche} and
+ * {@link com.dgapr.demo.Model.Materiel}.
+ *
+ * <p>The unit is free text entered in French or English; it is matched on its accent-free,
+ * lower-cased form ("jours", "semaine", "mois", "ans", "année", "days", "months", "years", ...).</p>
+ */
+public final class WarrantyCalculator {
+
+    private WarrantyCalculator() {
+    }
+
+    /**
+     * @param start the first day covered by the warranty
+     * @param duree the warranty length
+     * @param unite the unit of {@code duree}
+     * @return the warranty end date, or {@code null} if any input is missing or the unit is not recognised
+     */
+    public static LocalDate warrantyEnd(LocalDate start, Integer duree, String unite) {
+        if (start == null || duree == null) return null;
+        ChronoUnit unit = parseUnit(unite);
+        return unit == null ? null : start.plus(duree, unit);
+    }
+
+    /**
+     * @param unite a free-text warranty unit
+     * @return the matching {@link ChronoUnit}, or {@code null} if it is not recognised
+     */
+    public static ChronoUnit parseUnit(String unite) {
+        if (unite == null) return null;
+        String normalized = Normalizer.normalize(unite.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        if (normalized.startsWith("jour") || normalized.startsWith("day")) return ChronoUnit.DAYS;
+        if (normalized.startsWith("semaine") || normalized.startsWith("week")) return ChronoUnit.WEEKS;
+        if (normalized.startsWith("mois") || normalized.startsWith("month")) return ChronoUnit.MONTHS;
+        if (normalized.startsWith("an") || normalized.startsWith("year")) return ChronoUnit.YEARS;
+        return null;
+    }
+}
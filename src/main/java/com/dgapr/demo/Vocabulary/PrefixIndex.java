@@ -0,0 +1,58 @@
+package com.dgapr.demo.Vocabulary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, case-insensitive prefix index over a vocabulary's values, used for typeahead.
+ *
+ * <p>Values are stored in one array sorted by their lower-cased form, so all matches of a prefix
+ * form a contiguous run: a lookup is one binary search followed by copying at most {@code limit}
+ * entries, independent of the vocabulary size.</p>
+ */
+public final class PrefixIndex {
+
+    private final String[] keys;
+    private final String[] values;
+
+    PrefixIndex(Collection<String> values) {
+        String[] sorted = values.toArray(new String[0]);
+        Arrays.sort(sorted, Comparator.comparing(PrefixIndex::fold).thenComparing(Comparator.naturalOrder()));
+        this.values = sorted;
+        this.keys = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = fold(sorted[i]);
+        }
+    }
+
+    /**
+     * Returns the values starting with {@code prefix} (ignoring case), in alphabetical order.
+     *
+     * @param prefix the typed prefix
+     * @param limit  the maximum number of matches to return
+     * @return at most {@code limit} matching values
+     */
+    public List<String> lookup(String prefix, int limit) {
+        String key = fold(prefix);
+        int from = Arrays.binarySearch(keys, key);
+        if (from < 0) {
+            from = -from - 1;
+        } else {
+            // Several values may fold to the same key: step back to the first of them
+            while (from > 0 && keys[from - 1].equals(key)) from--;
+        }
+        List<String> matches = new ArrayList<>(Math.min(limit, keys.length - from));
+        for (int i = from; i < keys.length && matches.size() < limit && keys[i].startsWith(key); i++) {
+            matches.add(values[i]);
+        }
+        return matches;
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
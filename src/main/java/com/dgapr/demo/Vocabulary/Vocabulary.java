@@ -0,0 +1,51 @@
+package com.dgapr.demo.Vocabulary;
+
+import com.dgapr.demo.Model.Certificate.Certificate;
+import com.dgapr.demo.Model.Marche;
+import com.dgapr.demo.Model.Materiel;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The controlled vocabularies offered as dropdown values by the UI, each being the distinct
+ * non-null values of one entity property. For soft-deletable entities, deleted rows are excluded.
+ *
+ * @see VocabularyCache
+ */
+public enum Vocabulary {
+    SOCIETE(Marche.class, "societe"),
+    TYPE_EQUIPEMENT(Materiel.class, "type_equipement"),
+    GAMME(Materiel.class, "gamme"),
+    ORGANIZATIONAL_UNIT(Certificate.class, "organizationalUnit"),
+    CERTIFICATE_TYPE(Certificate.class, "type");
+
+    private static final Map<Class<?>, List<Vocabulary>> BY_ENTITY = Arrays.stream(values())
+            .collect(Collectors.groupingBy(Vocabulary::getEntityClass));
+
+    private final Class<?> entityClass;
+    private final String property;
+
+    Vocabulary(Class<?> entityClass, String property) {
+        this.entityClass = entityClass;
+        this.property = property;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @param entityClass a mapped entity class
+     * @return the vocabularies fed by that entity, possibly none
+     */
+    public static List<Vocabulary> forEntity(Class<?> entityClass) {
+        return BY_ENTITY.getOrDefault(entityClass, List.of());
+    }
+}
@@ -0,0 +1,191 @@
+package com.dgapr.demo.Vocabulary;
+
+import com.dgapr.demo.Model.SoftDeletableEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * In-memory cache of the {@link Vocabulary} value lists behind the UI dropdowns.
+ *
+ * <p>Each vocabulary is loaded once with a {@code GROUP BY} query and then kept current from
+ * committed entity writes ({@link VocabularyChangeListener}): the cache counts how many rows carry
+ * each value, so an insert, update or delete only adjusts the affected counts. A value appears or
+ * disappears when its count crosses zero.</p>
+ *
+ * <p>Readers get an immutable {@link Snapshot} holding the sorted values, a {@link PrefixIndex} for
+ * typeahead lookups and a weak ETag derived from the values, which controllers use to answer
+ * {@code If-None-Match} with 304. The snapshot is rebuilt only when a value appears or disappears.
+ * A periodic full reload corrects any drift (e.g. rows changed by SQL outside the application).</p>
+ */
+@Slf4j
+@Component
+public class VocabularyCache {
+
+    /**
+     * An immutable view of a vocabulary.
+     *
+     * @param values the distinct values, sorted
+     * @param etag   a weak ETag that changes whenever {@code values} changes
+     * @param index  the case-insensitive prefix index over {@code values}, for typeahead
+     */
+    public record Snapshot(List<String> values, String etag, PrefixIndex index) { }
+
+    /**
+     * Per-vocabulary state. Guarded by the entry's monitor; {@link #snapshot} is read without locking.
+     */
+    private static final class Entry {
+        private final TreeMap<String, Integer> counts = new TreeMap<>();
+        private boolean loaded;
+        private volatile Snapshot snapshot;
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Vocabulary, Entry> entries = new EnumMap<>(Vocabulary.class);
+
+    public VocabularyCache() {
+        for (Vocabulary v : Vocabulary.values()) {
+            entries.put(v, new Entry());
+        }
+    }
+
+    /**
+     * Returns the current values of a vocabulary, loading it from the database on first use.
+     *
+     * @param vocabulary the vocabulary to read
+     * @return the values and their ETag
+     */
+    public Snapshot get(Vocabulary vocabulary) {
+        Entry entry = entries.get(vocabulary);
+        Snapshot snapshot = entry.snapshot;
+        if (snapshot != null) return snapshot;
+        synchronized (entry) {
+            if (!entry.loaded) {
+                load(vocabulary, entry);
+            }
+            return entry.snapshot;
+        }
+    }
+
+    /**
+     * Applies one committed row change: {@code removed} lost a row, {@code added} gained one.
+     * Either may be {@code null} (insert, delete, or a null value). Ignored until the vocabulary is loaded,
+     * since the initial load reads the committed state anyway.
+     *
+     * @param vocabulary the affected vocabulary
+     * @param removed    the value the row contributed before the change
+     * @param added      the value the row contributes after the change
+     */
+    public void apply(Vocabulary vocabulary, String removed, String added) {
+        if (Objects.equals(removed, added)) return;
+        Entry entry = entries.get(vocabulary);
+        synchronized (entry) {
+            if (!entry.loaded) return;
+            boolean changed = false;
+            if (removed != null) {
+                Integer count = entry.counts.get(removed);
+                if (count != null && count <= 1) {
+                    entry.counts.remove(removed);
+                    changed = true;
+                } else if (count != null) {
+                    entry.counts.put(removed, count - 1);
+                }
+            }
+            if (added != null) {
+                changed |= entry.counts.merge(added, 1, Integer::sum) == 1;
+            }
+            if (changed) {
+                publish(entry);
+            }
+        }
+    }
+
+    /**
+     * Registers values inserted outside Hibernate (JDBC batch imports) to be applied once the
+     * current transaction commits, or immediately when no transaction is active.
+     *
+     * @param vocabulary the affected vocabulary
+     * @param values     one value per inserted row (nulls are ignored)
+     */
+    public void applyInsertsAfterCommit(Vocabulary vocabulary, Collection<String> values) {
+        List<String> inserted = values.stream().filter(Objects::nonNull).toList();
+        if (inserted.isEmpty()) return;
+        Runnable task = () -> inserted.forEach(value -> apply(vocabulary, null, value));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Forgets a vocabulary so the next read reloads it from the database.
+     *
+     * @param vocabulary the vocabulary to invalidate
+     */
+    public void invalidate(Vocabulary vocabulary) {
+        Entry entry = entries.get(vocabulary);
+        synchronized (entry) {
+            entry.loaded = false;
+            entry.counts.clear();
+            entry.snapshot = null;
+        }
+    }
+
+    /**
+     * Periodically reloads the vocabularies already in use, correcting any drift from changes
+     * made outside the application.
+     */
+    @Scheduled(fixedDelayString = "${vocabulary.cache.reload-ms:3600000}",
+            initialDelayString = "${vocabulary.cache.reload-ms:3600000}")
+    public void reloadAll() {
+        entries.forEach((vocabulary, entry) -> {
+            synchronized (entry) {
+                if (entry.loaded) {
+                    load(vocabulary, entry);
+                }
+            }
+        });
+    }
+
+    private void load(Vocabulary vocabulary, Entry entry) {
+        String property = "e." + vocabulary.getProperty();
+        String jpql = "SELECT " + property + ", COUNT(e) FROM " + vocabulary.getEntityClass().getSimpleName() + " e " +
+                "WHERE " + property + " IS NOT NULL" +
+                (SoftDeletableEntity.class.isAssignableFrom(vocabulary.getEntityClass()) ? " AND e.isDeleted = false" : "") +
+                " GROUP BY " + property;
+        List<Object[]> rows = entityManager.createQuery(jpql, Object[].class).getResultList();
+
+        entry.counts.clear();
+        for (Object[] row : rows) {
+            entry.counts.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        entry.loaded = true;
+        publish(entry);
+        log.debug("Vocabulary {} loaded with {} values", vocabulary, entry.counts.size());
+    }
+
+    private static void publish(Entry entry) {
+        List<String> values = List.copyOf(entry.counts.keySet());
+        String etag = "W/\"" + Integer.toHexString(values.hashCode()) + "-" + values.size() + "\"";
+        entry.snapshot = new Snapshot(values, etag, new PrefixIndex(values));
+    }
+}
@@ -0,0 +1,112 @@
+package com.dgapr.demo.Vocabulary;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Feeds {@link VocabularyCache} from committed Hibernate writes.
+ *
+ * <p>Registered as a post-commit listener, so the cache only sees changes that actually reached the
+ * database, and only for the entities that back a {@link Vocabulary}. Soft-deleted rows
+ * ({@code isDeleted = true}) contribute no value.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class VocabularyChangeListener implements
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final String SOFT_DELETE_PROPERTY = "isDeleted";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final VocabularyCache vocabularyCache;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        for (Vocabulary vocabulary : vocabulariesOf(event.getEntity())) {
+            vocabularyCache.apply(vocabulary, null, valueOf(event.getPersister(), event.getState(), vocabulary));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        for (Vocabulary vocabulary : vocabulariesOf(event.getEntity())) {
+            if (event.getOldState() == null) {
+                // Detached entity merged without a loaded snapshot: the previous value is unknown
+                vocabularyCache.invalidate(vocabulary);
+                continue;
+            }
+            vocabularyCache.apply(vocabulary,
+                    valueOf(event.getPersister(), event.getOldState(), vocabulary),
+                    valueOf(event.getPersister(), event.getState(), vocabulary));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        for (Vocabulary vocabulary : vocabulariesOf(event.getEntity())) {
+            vocabularyCache.apply(vocabulary, valueOf(event.getPersister(), event.getDeletedState(), vocabulary), null);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was applied before commit, so there is nothing to undo
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was applied before commit, so there is nothing to undo
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was applied before commit, so there is nothing to undo
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return !Vocabulary.forEntity(persister.getMappedClass()).isEmpty();
+    }
+
+    private static List<Vocabulary> vocabulariesOf(Object entity) {
+        return Vocabulary.forEntity(entity.getClass());
+    }
+
+    /**
+     * Returns the value a row contributes to a vocabulary: the property value, or {@code null}
+     * if the row is soft-deleted.
+     */
+    private static String valueOf(EntityPersister persister, Object[] state, Vocabulary vocabulary) {
+        if (state == null) return null;
+        String[] names = persister.getPropertyNames();
+        int deletedIndex = Arrays.asList(names).indexOf(SOFT_DELETE_PROPERTY);
+        if (deletedIndex >= 0 && Boolean.TRUE.equals(state[deletedIndex])) return null;
+        int index = Arrays.asList(names).indexOf(vocabulary.getProperty());
+        return index < 0 ? null : (String) state[index];
+    }
+}
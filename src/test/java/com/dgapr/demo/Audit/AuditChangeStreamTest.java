@@ -0,0 +1,119 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Dto.AuditDto.ChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks what a resuming subscriber of {@link AuditChangeStream} is sent first: the changes after its
+ * offset, or a reset when they cannot all be replayed.
+ */
+class AuditChangeStreamTest {
+
+    private static final int REPLAY = 10;
+    private static final int BUFFER = 5;
+
+    private final AuditChangeStream stream =
+            new AuditChangeStream(new AuditDetailsCodec(null, new ObjectMapper()), REPLAY, BUFFER, 15000);
+
+    @Test
+    void liveSubscriberGetsNoBacklog() {
+        publish("Certificate", 3);
+
+        AuditChangeStream.Backlog backlog = stream.backlog(Set.of(), null);
+
+        assertThat(backlog.reset()).isFalse();
+        assertThat(backlog.missed()).isEmpty();
+        assertThat(backlog.head()).isEqualTo(3);
+    }
+
+    @Test
+    void resumingSubscriberGetsTheChangesAfterItsOffset() {
+        publish("Certificate", 4);
+
+        AuditChangeStream.Backlog backlog = stream.backlog(Set.of(), 2L);
+
+        assertThat(backlog.reset()).isFalse();
+        assertThat(backlog.missed()).extracting(ChangeEvent::offset).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void upToDateSubscriberGetsNothing() {
+        publish("Certificate", 4);
+
+        assertThat(stream.backlog(Set.of(), 4L).missed()).isEmpty();
+        assertThat(stream.backlog(Set.of(), 4L).reset()).isFalse();
+    }
+
+    @Test
+    void replayIsFilteredByTable() {
+        publish("Certificate", 2);
+        publish("users", 2);
+        publish("Certificate", 1);
+
+        AuditChangeStream.Backlog backlog = stream.backlog(Set.of("Certificate"), 1L);
+
+        assertThat(backlog.reset()).isFalse();
+        assertThat(backlog.missed()).extracting(ChangeEvent::offset).containsExactly(2L, 5L);
+    }
+
+    @Test
+    void offsetOlderThanTheReplayRingResets() {
+        publish("Certificate", REPLAY + 3);
+
+        // offsets 4..13 are still in the ring; 3 is the last one a client may have received
+        assertThat(stream.backlog(Set.of("users"), 3L).reset()).isFalse();
+        assertThat(stream.backlog(Set.of("users"), 2L).reset()).isTrue();
+    }
+
+    @Test
+    void offsetFromBeforeARestartResets() {
+        publish("Certificate", 2);
+
+        AuditChangeStream.Backlog backlog = stream.backlog(Set.of(), 50L);
+
+        assertThat(backlog.reset()).isTrue();
+        assertThat(backlog.head()).isEqualTo(2);
+    }
+
+    @Test
+    void moreMissedChangesThanTheBufferResets() {
+        publish("Certificate", BUFFER + 1);
+
+        assertThat(stream.backlog(Set.of(), 1L).reset()).isFalse();
+        assertThat(stream.backlog(Set.of(), 0L).reset()).isTrue();
+    }
+
+    @Test
+    void droppedBatchConsumesOffsetsAndResetsSubscribersResumingAcrossIt() {
+        publish("Certificate", 2);
+        stream.dropped(records("Certificate", 3));
+        publish("Certificate", 1);
+
+        AuditChangeStream.Backlog across = stream.backlog(Set.of(), 2L);
+        assertThat(across.reset()).isTrue();
+        assertThat(across.head()).isEqualTo(6);
+
+        // the reset carries offset 5: resuming from it replays what came after the gap
+        AuditChangeStream.Backlog after = stream.backlog(Set.of(), 5L);
+        assertThat(after.reset()).isFalse();
+        assertThat(after.missed()).extracting(ChangeEvent::offset).containsExactly(6L);
+    }
+
+    private void publish(String table, int count) {
+        stream.write(records(table, count));
+    }
+
+    private static List<AuditRecord> records(String table, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new AuditRecord(i, table, Integer.toString(i), "UPDATE", "admin", Instant.now(), null))
+                .toList();
+    }
+}
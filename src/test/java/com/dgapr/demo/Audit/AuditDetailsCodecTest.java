@@ -0,0 +1,161 @@
+package com.dgapr.demo.Audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Round trips of {@link AuditDetailsCodec}, with an in-memory field dictionary.
+ */
+class AuditDetailsCodecTest {
+
+    private static final String TABLE = "Certificate";
+
+    private final AuditFieldDictionary dictionary = mock(AuditFieldDictionary.class);
+    private final AuditDetailsCodec codec = new AuditDetailsCodec(dictionary, new ObjectMapper());
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(dictionary.idOf(anyString(), anyString())).thenAnswer(invocation -> ids.computeIfAbsent(
+                invocation.getArgument(1), field -> {
+                    names.put(ids.size() + 1, field);
+                    return ids.size() + 1;
+                }));
+        when(dictionary.nameOf(anyInt())).thenAnswer(invocation -> {
+            String name = names.get(invocation.<Integer>getArgument(0));
+            if (name == null) throw new IllegalStateException("Unknown audit field id " + invocation.getArgument(0));
+            return name;
+        });
+    }
+
+    @Test
+    void snapshotRoundTrips() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", 42);
+        values.put("commonName", "a.example");
+        values.put("isDeleted", false);
+        values.put("ratio", 0.5);
+        values.put("amount", new BigDecimal("1234.5"));
+        values.put("token", UUID.fromString("123e4567-e89b-12d3-a456-426614174000"));
+
+        byte[] encoded = codec.encode(TABLE, AuditDetails.snapshot(values));
+
+        assertThat(encoded[0]).isEqualTo((byte) AuditDetailsCodec.FORMAT_VERSION);
+        assertThat(codec.decode(encoded)).isEqualTo("{\"id\":42,\"commonName\":\"a.example\",\"isDeleted\":false,"
+                + "\"ratio\":0.5,\"amount\":1234.5,\"token\":\"123e4567-e89b-12d3-a456-426614174000\"}");
+        assertThat(codec.fieldNames(encoded)).containsExactly("id", "commonName", "isDeleted", "ratio", "amount", "token");
+    }
+
+    @Test
+    void diffRoundTripsWithNulls() {
+        Map<String, Object> before = new LinkedHashMap<>();
+        before.put("commonName", null);
+        before.put("type", "SSL");
+        Map<String, Object> after = new LinkedHashMap<>();
+        after.put("commonName", "b.example");
+        after.put("type", null);
+
+        byte[] encoded = codec.encode(TABLE, AuditDetails.diff(before, after));
+
+        assertThat(codec.decode(encoded)).isEqualTo(
+                "{\"commonName\":{\"old\":null,\"new\":\"b.example\"},\"type\":{\"old\":\"SSL\",\"new\":null}}");
+        assertThat(codec.fieldNames(encoded)).containsExactly("commonName", "type");
+    }
+
+    @Test
+    void textRoundTrips() {
+        byte[] encoded = codec.encode(TABLE, AuditDetails.text("42 rows imported, 3 rejected"));
+
+        assertThat(codec.decode(encoded)).isEqualTo("42 rows imported, 3 rejected");
+        assertThat(codec.decodeTree(encoded).isTextual()).isTrue();
+        assertThat(codec.fieldNames(encoded)).isEmpty();
+    }
+
+    @Test
+    void temporalValuesDecodeToIsoText() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("day", LocalDate.of(1960, 2, 29));
+        values.put("at", Instant.parse("2025-03-01T10:15:30.123456789Z"));
+        values.put("local", LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500));
+
+        JsonNode decoded = codec.decodeTree(codec.encode(TABLE, AuditDetails.snapshot(values)));
+
+        assertThat(decoded.get("day").textValue()).isEqualTo("1960-02-29");
+        assertThat(decoded.get("at").textValue()).isEqualTo("2025-03-01T10:15:30.123456789Z");
+        assertThat(decoded.get("local").textValue()).isEqualTo("1969-12-31T23:59:59.000000500");
+    }
+
+    @Test
+    void negativeLongsAreZigZagEncoded() {
+        assertThat(codec.encode(TABLE, AuditDetails.snapshot(Map.of("n", -1L))))
+                .containsExactly(AuditDetailsCodec.FORMAT_VERSION, 0, 1, ids.get("n"), 3, 1);
+        assertThat(codec.encode(TABLE, AuditDetails.snapshot(Map.of("n", -64L))))
+                .endsWith(3, 127);
+        assertThat(codec.encode(TABLE, AuditDetails.snapshot(Map.of("n", -65L))))
+                .endsWith(3, 0x81, 1);
+
+        for (long n : List.of(-1L, -300L, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            JsonNode decoded = codec.decodeTree(codec.encode(TABLE, AuditDetails.snapshot(Map.of("n", n))));
+            assertThat(decoded.get("n").longValue()).isEqualTo(n);
+        }
+    }
+
+    @Test
+    void largePayloadsAreDeflated() {
+        String value = "CN=server.example, OU=Infrastructure, O=Example, C=FR ".repeat(10);
+
+        byte[] encoded = codec.encode(TABLE, AuditDetails.snapshot(Map.of("subject", value)));
+
+        assertThat(encoded[0] & AuditDetailsCodec.COMPRESSED).isNotZero();
+        assertThat(encoded.length).isLessThan(value.length());
+        assertThat(codec.decodeTree(encoded).get("subject").textValue()).isEqualTo(value);
+    }
+
+    @Test
+    void smallOrIncompressiblePayloadsAreNotDeflated() throws Exception {
+        assertThat(codec.encode(TABLE, AuditDetails.snapshot(Map.of("id", 1)))[0] & AuditDetailsCodec.COMPRESSED).isZero();
+
+        byte[] random = new byte[AuditDetailsCodec.COMPRESS_MIN * 2];
+        new Random(7).nextBytes(random);
+        byte[] encoded = codec.encode(TABLE, AuditDetails.snapshot(Map.of("data", random)));
+
+        assertThat(encoded[0] & AuditDetailsCodec.COMPRESSED).isZero();
+        assertThat(codec.decodeTree(encoded).get("data").binaryValue()).isEqualTo(random);
+    }
+
+    @Test
+    void unknownFieldIdIsRejected() {
+        byte[] encoded = {AuditDetailsCodec.FORMAT_VERSION, 0, 1, 99, 0};
+
+        assertThatThrownBy(() -> codec.decodeTree(encoded)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("99");
+        assertThatThrownBy(() -> codec.fieldNames(encoded)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unknownFormatVersionIsRejected() {
+        assertThatThrownBy(() -> codec.decodeTree(new byte[]{2, 0, 0})).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("format 2");
+    }
+}
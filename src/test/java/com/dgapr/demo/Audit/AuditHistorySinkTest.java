@@ -0,0 +1,181 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Model.AuditHistoryHead;
+import com.dgapr.demo.Model.AuditSnapshot;
+import com.dgapr.demo.Repository.AuditHistoryHeadRepository;
+import com.dgapr.demo.Repository.AuditSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks where {@link AuditHistorySink} starts a row's history, when it snapshots it, and that an
+ * unreadable entry only stops the history of its row. The baseline of untracked rows is mocked. Details are plain JSON here, through a stub codec.
+ */
+class AuditHistorySinkTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String TABLE = "Certificate";
+
+    private final AuditHistoryHeadRepository headRepository = mock(AuditHistoryHeadRepository.class);
+    private final AuditSnapshotRepository snapshotRepository = mock(AuditSnapshotRepository.class);
+    private final AuditHistoryBaseline baseline = mock(AuditHistoryBaseline.class);
+    private final AuditDetailsCodec codec = mock(AuditDetailsCodec.class);
+    private final List<AuditHistoryHead> storedHeads = new ArrayList<>();
+
+    private final AuditHistorySink sink =
+            new AuditHistorySink(headRepository, snapshotRepository, baseline, codec, JSON, Set.of(TABLE), 3);
+
+    @BeforeEach
+    void setUp() {
+        when(headRepository.findByTableNameAndRowIdIn(eq(TABLE), any())).thenReturn(storedHeads);
+        when(codec.decodeTree(any())).thenAnswer(invocation -> {
+            try {
+                return JSON.readTree((byte[]) invocation.getArgument(0));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unknown audit details format", e);
+            }
+        });
+        when(codec.encode(anyString(), any())).thenAnswer(invocation ->
+                JSON.writeValueAsBytes(((AuditDetails) invocation.getArgument(1)).after()));
+    }
+
+    @Test
+    void creationStartsTheHistoryWithASnapshot() {
+        sink.write(List.of(record(10, "1", "CREATE", "{\"id\":1,\"commonName\":\"a.example\"}")));
+
+        assertThat(savedHeads()).singleElement().satisfies(head -> assertThat(head.getRowId()).isEqualTo("1"));
+        assertThat(savedSnapshots()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.getLastOutboxId()).isEqualTo(10L);
+            assertThat(decode(snapshot.getStateData())).isEqualTo("{\"id\":1,\"commonName\":\"a.example\"}");
+        });
+    }
+
+    @Test
+    void changeOfAnUntrackedRowBaselinesItFirst() {
+        // e.g. a certificate inserted by the bulk import, which audits no CREATE per row
+        when(baseline.baseline(TABLE, Set.of("1"))).thenReturn(Map.of("1", head("1", "{\"id\":1,\"commonName\":\"a.example\"}", 0)));
+
+        sink.write(List.of(record(10, "1", "UPDATE", "{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}")));
+
+        assertThat(savedHeads()).singleElement().satisfies(head -> {
+            assertThat(head.getChangesSinceSnapshot()).isEqualTo(1);
+            assertThat(decode(head.getStateData())).isEqualTo("{\"id\":1,\"commonName\":\"b.example\"}");
+        });
+    }
+
+    @Test
+    void changeOfARowThatNoLongerExistsIsSkipped() {
+        sink.write(List.of(record(10, "1", "UPDATE", "{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}")));
+
+        verify(baseline).baseline(TABLE, Set.of("1"));
+        assertThat(savedHeads()).isEmpty();
+        assertThat(savedSnapshots()).isEmpty();
+    }
+
+    @Test
+    void creationNeedsNoBaseline() {
+        sink.write(List.of(
+                record(10, "1", "CREATE", "{\"id\":1,\"commonName\":\"a.example\"}"),
+                record(11, "1", "UPDATE", "{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}")));
+
+        verify(baseline).baseline(TABLE, Set.of());
+        assertThat(savedHeads()).singleElement()
+                .satisfies(head -> assertThat(decode(head.getStateData())).isEqualTo("{\"id\":1,\"commonName\":\"b.example\"}"));
+    }
+
+    @Test
+    void bulkImportSummaryIsIgnored() {
+        sink.write(List.of(record(10, "IMPORT-1", "BULK_CREATE", "{\"source\":\"csv\",\"imported\":2}")));
+
+        verifyNoInteractions(baseline, headRepository, snapshotRepository);
+    }
+
+    @Test
+    void everyNthChangeIsSnapshotWithItsOutboxId() {
+        storedHeads.add(head("1", "{\"id\":1,\"commonName\":\"a.example\"}", 1));
+
+        sink.write(List.of(
+                record(11, "1", "UPDATE", "{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}"),
+                record(12, "1", "UPDATE", "{\"commonName\":{\"old\":\"b.example\",\"new\":\"c.example\"}}")));
+
+        assertThat(savedSnapshots()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.getLastOutboxId()).isEqualTo(12L);
+            assertThat(decode(snapshot.getStateData())).isEqualTo("{\"id\":1,\"commonName\":\"c.example\"}");
+        });
+        assertThat(savedHeads()).singleElement().satisfies(head -> {
+            assertThat(head.getChangesSinceSnapshot()).isZero();
+            assertThat(decode(head.getStateData())).isEqualTo("{\"id\":1,\"commonName\":\"c.example\"}");
+        });
+    }
+
+    @Test
+    void unreadableEntryDropsTheHistoryOfItsRowOnly() {
+        AuditHistoryHead broken = head("1", "{\"id\":1,\"commonName\":\"a.example\"}", 0);
+        storedHeads.add(broken);
+        storedHeads.add(head("2", "{\"id\":2,\"commonName\":\"x.example\"}", 0));
+
+        sink.write(List.of(
+                new AuditRecord(11, TABLE, "1", "UPDATE", "admin", Instant.now(), new byte[]{1, 2, 3}),
+                record(12, "1", "UPDATE", "{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}"),
+                record(13, "2", "UPDATE", "{\"commonName\":{\"old\":\"x.example\",\"new\":\"y.example\"}}")));
+
+        verify(headRepository).delete(broken);
+        assertThat(savedHeads()).singleElement().satisfies(head -> {
+            assertThat(head.getRowId()).isEqualTo("2");
+            assertThat(decode(head.getStateData())).isEqualTo("{\"id\":2,\"commonName\":\"y.example\"}");
+        });
+    }
+
+    private static AuditRecord record(long outboxId, String rowId, String operation, String details) {
+        return new AuditRecord(outboxId, TABLE, rowId, operation, "admin", Instant.now(),
+                details.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AuditHistoryHead head(String rowId, String state, int changesSinceSnapshot) {
+        AuditHistoryHead head = new AuditHistoryHead();
+        head.setId(Long.valueOf(rowId));
+        head.setTableName(TABLE);
+        head.setRowId(rowId);
+        head.setStateData(state.getBytes(StandardCharsets.UTF_8));
+        head.setChangesSinceSnapshot(changesSinceSnapshot);
+        head.setLastChange(Instant.now());
+        return head;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AuditHistoryHead> savedHeads() {
+        ArgumentCaptor<List<AuditHistoryHead>> captor = ArgumentCaptor.forClass(List.class);
+        verify(headRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AuditSnapshot> savedSnapshots() {
+        ArgumentCaptor<List<AuditSnapshot>> captor = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String decode(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
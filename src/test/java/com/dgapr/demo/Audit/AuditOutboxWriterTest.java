@@ -0,0 +1,230 @@
+package com.dgapr.demo.Audit;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks how {@link AuditOutboxWriter} coalesces the changes of a row within one transaction, and the
+ * changes it must keep apart. Entries are read back from the JDBC batch written before commit.
+ */
+class AuditOutboxWriterTest {
+
+    private static final String TABLE = "Certificate";
+
+    private final AuditDetailsCodec codec = mock(AuditDetailsCodec.class);
+    private final AuditOutboxWriter writer = new AuditOutboxWriter(codec);
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null, "ROLE_ADMIN"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void updateAfterCreationIsFoldedIntoTheSnapshot() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "CREATE", AuditDetails.snapshot(values("id", 1, "commonName", "a.example")));
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+
+        assertThat(commit(session)).singleElement().satisfies(entry -> {
+            assertThat(entry.op()).isEqualTo("CREATE");
+            assertThat(entry.details().kind()).isEqualTo(AuditDetails.Kind.SNAPSHOT);
+            assertThat(entry.details().after()).isEqualTo(values("id", 1, "commonName", "b.example"));
+        });
+    }
+
+    @Test
+    void successiveUpdatesKeepTheFirstOldAndTheLastNewValue() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, TABLE, "1", "UPDATE", diff("type", "SSL", "TLS"));
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "b.example", "c.example"));
+
+        assertThat(commit(session)).singleElement().satisfies(entry -> {
+            assertThat(entry.op()).isEqualTo("UPDATE");
+            assertThat(entry.details().before()).isEqualTo(values("commonName", "a.example", "type", "SSL"));
+            assertThat(entry.details().after()).isEqualTo(values("commonName", "c.example", "type", "TLS"));
+        });
+    }
+
+    @Test
+    void fieldSetBackToItsOldValueIsDropped() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, TABLE, "1", "UPDATE", diff("type", "SSL", "TLS"));
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "b.example", "a.example"));
+
+        assertThat(commit(session)).singleElement().satisfies(entry -> {
+            assertThat(entry.details().before()).isEqualTo(values("type", "SSL"));
+            assertThat(entry.details().after()).isEqualTo(values("type", "TLS"));
+        });
+    }
+
+    @Test
+    void updatesThatCancelOutLeaveNoEntryUntilTheNextChange() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "b.example", "a.example"));
+
+        assertThat(commit(session)).isEmpty();
+
+        EventSource next = session();
+        writer.add(next, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(next, TABLE, "1", "UPDATE", diff("commonName", "b.example", "a.example"));
+        writer.add(next, TABLE, "1", "UPDATE", diff("commonName", "a.example", "c.example"));
+
+        assertThat(commit(next)).singleElement()
+                .satisfies(entry -> assertThat(entry.details().after()).isEqualTo(values("commonName", "c.example")));
+    }
+
+    @Test
+    void softDeleteStaysTheOperationOfTheEntry() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "DELETE", diff("isDeleted", false, true));
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+
+        assertThat(commit(session)).singleElement().satisfies(entry -> {
+            assertThat(entry.op()).isEqualTo("DELETE");
+            assertThat(entry.details().after()).isEqualTo(values("isDeleted", true, "commonName", "b.example"));
+        });
+    }
+
+    @Test
+    void updateFollowedBySoftDeleteBecomesADelete() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, TABLE, "1", "DELETE", diff("isDeleted", false, true));
+
+        assertThat(commit(session)).singleElement().satisfies(entry -> {
+            assertThat(entry.op()).isEqualTo("DELETE");
+            assertThat(entry.details().after()).isEqualTo(values("commonName", "b.example", "isDeleted", true));
+        });
+    }
+
+    @Test
+    void hardDeleteIsKeptApart() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, TABLE, "1", "HARD_DELETE", AuditDetails.snapshot(values("id", 1, "commonName", "b.example")));
+        writer.add(session, TABLE, "2", "CREATE", AuditDetails.snapshot(values("id", 2)));
+        writer.add(session, TABLE, "2", "HARD_DELETE", AuditDetails.snapshot(values("id", 2)));
+
+        assertThat(commit(session)).extracting(Written::rowId, Written::op).containsExactly(
+                tuple("1", "UPDATE"), tuple("1", "HARD_DELETE"), tuple("2", "CREATE"), tuple("2", "HARD_DELETE"));
+    }
+
+    @Test
+    void diffIsNotMergedIntoAnotherSnapshotOrText() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "HARD_DELETE", AuditDetails.snapshot(values("id", 1)));
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, TABLE, "2", "BULK_CREATE", AuditDetails.text("2 rows imported"));
+        writer.add(session, TABLE, "2", "UPDATE", diff("commonName", "a.example", "b.example"));
+
+        assertThat(commit(session)).extracting(Written::rowId, Written::op).containsExactly(
+                tuple("1", "HARD_DELETE"), tuple("1", "UPDATE"), tuple("2", "BULK_CREATE"), tuple("2", "UPDATE"));
+    }
+
+    @Test
+    void otherRowsAndTablesAreNotMerged() throws Exception {
+        EventSource session = session();
+        writer.add(session, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, TABLE, "2", "UPDATE", diff("commonName", "a.example", "b.example"));
+        writer.add(session, "users", "1", "UPDATE", diff("email", "a@example.com", "b@example.com"));
+
+        assertThat(commit(session)).extracting(Written::table, Written::rowId)
+                .containsExactly(tuple(TABLE, "1"), tuple(TABLE, "2"), tuple("users", "1"));
+    }
+
+    @Test
+    void changesOfOtherTransactionsAreNotMerged() throws Exception {
+        EventSource first = session();
+        EventSource second = session();
+        writer.add(first, TABLE, "1", "UPDATE", diff("commonName", "a.example", "b.example"));
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("bob", null, "ROLE_ADMIN"));
+        writer.add(second, TABLE, "1", "UPDATE", diff("commonName", "b.example", "c.example"));
+
+        // each transaction resolves its user once, so an entry never mixes the changes of two users
+        assertThat(commit(first)).extracting(Written::modifiedBy).containsExactly("alice");
+        assertThat(commit(second)).extracting(Written::modifiedBy).containsExactly("bob");
+    }
+
+    private EventSource session() {
+        EventSource session = mock(EventSource.class);
+        when(session.getActionQueue()).thenReturn(mock(ActionQueue.class));
+        return session;
+    }
+
+    /** Runs the writer's before-commit hook of the session and returns the rows it inserted. */
+    private List<Written> commit(EventSource session) throws Exception {
+        ArgumentCaptor<BeforeTransactionCompletionProcess> process =
+                ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(session.getActionQueue()).registerProcess(process.capture());
+
+        List<Written> written = new ArrayList<>();
+        Object[] row = new Object[7];
+        PreparedStatement insert = mock(PreparedStatement.class);
+        doAnswer(invocation -> row[invocation.<Integer>getArgument(0)] = invocation.getArgument(1))
+                .when(insert).setString(anyInt(), any());
+        doAnswer(invocation -> written.add(new Written((String) row[1], (String) row[2], (String) row[3],
+                (String) row[4], (AuditDetails) row[6]))).when(insert).addBatch();
+        when(codec.encode(anyString(), any())).thenAnswer(invocation -> {
+            row[6] = invocation.getArgument(1);
+            return new byte[0];
+        });
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(insert);
+        SessionImplementor jdbcSession = mock(SessionImplementor.class);
+        doAnswer(invocation -> {
+            invocation.<Work>getArgument(0).execute(connection);
+            return null;
+        }).when(jdbcSession).doWork(any());
+
+        process.getValue().doBeforeTransactionCompletion(jdbcSession);
+        return written;
+    }
+
+    private static AuditDetails diff(String field, Object before, Object after) {
+        return AuditDetails.diff(values(field, before), values(field, after));
+    }
+
+    private static Map<String, Object> values(Object... pairs) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            values.put((String) pairs[i], pairs[i + 1]);
+        }
+        return values;
+    }
+
+    private record Written(String table, String rowId, String op, String modifiedBy, AuditDetails details) { }
+}
@@ -0,0 +1,89 @@
+package com.dgapr.demo.Audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks how {@link AuditedState} applies the decoded details of each kind of audit entry.
+ */
+class AuditedStateTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Instant T1 = Instant.parse("2025-03-01T10:00:00Z");
+    private static final Instant T2 = Instant.parse("2025-03-02T10:00:00Z");
+
+    @Test
+    void createSetsAllValues() {
+        AuditedState state = AuditedState.empty();
+
+        assertThat(state.apply("CREATE", json("{\"id\":1,\"commonName\":\"a.example\",\"isDeleted\":false}"), T1)).isTrue();
+
+        assertThat(state.values()).isEqualTo(json("{\"id\":1,\"commonName\":\"a.example\",\"isDeleted\":false}"));
+        assertThat(state.deleted()).isFalse();
+        assertThat(state.lastChange()).isEqualTo(T1);
+    }
+
+    @Test
+    void updateSetsOnlyTheChangedFieldsToTheirNewValues() {
+        AuditedState state = AuditedState.of(json("{\"id\":1,\"commonName\":\"a.example\",\"type\":\"SSL\"}"), false, T1);
+
+        state.apply("UPDATE", json("{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}"), T2);
+
+        assertThat(state.values()).isEqualTo(json("{\"id\":1,\"commonName\":\"b.example\",\"type\":\"SSL\"}"));
+        assertThat(state.lastChange()).isEqualTo(T2);
+    }
+
+    @Test
+    void softDeleteIsAnUpdateOfIsDeleted() {
+        AuditedState state = AuditedState.of(json("{\"id\":1,\"isDeleted\":false}"), false, T1);
+
+        state.apply("DELETE", json("{\"isDeleted\":{\"old\":false,\"new\":true}}"), T2);
+
+        assertThat(state.values().get("isDeleted").booleanValue()).isTrue();
+        assertThat(state.deleted()).isFalse();
+    }
+
+    @Test
+    void hardDeleteReplacesTheValuesAndFlagsTheRow() {
+        AuditedState state = AuditedState.of(json("{\"id\":1,\"commonName\":\"a.example\"}"), false, T1);
+
+        state.apply("HARD_DELETE", json("{\"id\":1,\"commonName\":\"b.example\"}"), T2);
+
+        assertThat(state.values()).isEqualTo(json("{\"id\":1,\"commonName\":\"b.example\"}"));
+        assertThat(state.deleted()).isTrue();
+    }
+
+    @Test
+    void textDetailsAndUnknownOperationsAreIgnored() {
+        AuditedState state = AuditedState.of(json("{\"id\":1}"), false, T1);
+
+        assertThat(state.apply("BULK_CREATE", JSON.getNodeFactory().textNode("42 rows imported"), T2)).isFalse();
+        assertThat(state.apply("MERGE", json("{\"id\":{\"old\":1,\"new\":2}}"), T2)).isFalse();
+
+        assertThat(state.values()).isEqualTo(json("{\"id\":1}"));
+        assertThat(state.lastChange()).isEqualTo(T1);
+    }
+
+    @Test
+    void ofCopiesTheSnapshot() {
+        JsonNode snapshot = json("{\"id\":1,\"commonName\":\"a.example\"}");
+        AuditedState state = AuditedState.of(snapshot, false, T1);
+
+        state.apply("UPDATE", json("{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}"), T2);
+
+        assertThat(snapshot.get("commonName").textValue()).isEqualTo("a.example");
+    }
+
+    private static JsonNode json(String text) {
+        try {
+            return JSON.readTree(text);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
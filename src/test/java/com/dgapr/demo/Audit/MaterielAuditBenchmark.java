@@ -0,0 +1,130 @@
+package com.dgapr.demo.Audit;
+
+import com.dgapr.demo.Model.Marche;
+import com.dgapr.demo.Model.Materiel;
+import com.dgapr.demo.Repository.AuditOutboxRepository;
+import com.dgapr.demo.Repository.MarcheRepository;
+import com.dgapr.demo.Repository.MaterielRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the latency the audit pipeline adds to bulk materiel inserts through JPA: the same batch is
+ * saved in one transaction with auditing disabled and enabled, alternately, and the medians compared.
+ *
+ * <p>Timing-sensitive, so it only runs on request:
+ * {@code mvn test -Dtest=MaterielAuditBenchmark -Dbenchmark=true}. Rounds and batch size can be set
+ * with {@code -Dbenchmark.rounds} and {@code -Dbenchmark.rows}.</p>
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit-bench;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({AuditChangeListener.class, AuditedTypes.class, AuditOutboxWriter.class, AuditDetailsCodec.class, AuditFieldDictionary.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MaterielAuditBenchmark {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 15);
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1000);
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Autowired
+    private MarcheRepository marcheRepository;
+
+    @Autowired
+    private MaterielRepository materielRepository;
+
+    @Autowired
+    private AuditOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int serial;
+
+    @Test
+    void auditOverheadOnBulkInsert() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Marche marche = tx.execute(status -> {
+            Marche m = new Marche();
+            m.setTitre_marche("Benchmark");
+            m.setDate_reception(LocalDate.now());
+            m.setGarantie_duree(2);
+            m.setGarantie_unite("ANS");
+            return marcheRepository.save(m);
+        });
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            insert(tx, marche, false);
+            insert(tx, marche, true);
+        }
+
+        long outboxBefore = outboxRepository.count();
+        long[] plain = new long[ROUNDS];
+        long[] audited = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            plain[i] = insert(tx, marche, false);
+            audited[i] = insert(tx, marche, true);
+        }
+
+        long plainMedian = median(plain);
+        long auditedMedian = median(audited);
+        System.out.printf("Materiel bulk insert, %d rows per transaction, median of %d rounds:%n", ROWS, ROUNDS);
+        System.out.printf("  without audit: %8.2f ms (%6.1f us/row)%n", plainMedian / 1e6, plainMedian / 1e3 / ROWS);
+        System.out.printf("  with audit:    %8.2f ms (%6.1f us/row)%n", auditedMedian / 1e6, auditedMedian / 1e3 / ROWS);
+        System.out.printf("  overhead:      %8.2f ms (%+5.1f%%)%n",
+                (auditedMedian - plainMedian) / 1e6, 100.0 * (auditedMedian - plainMedian) / plainMedian);
+
+        // one outbox entry per audited row, none for the unaudited rounds
+        assertThat(outboxRepository.count() - outboxBefore).isEqualTo((long) ROUNDS * ROWS);
+    }
+
+    /**
+     * @return the duration of the transaction, in nanoseconds
+     */
+    private long insert(TransactionTemplate tx, Marche marche, boolean audit) {
+        List<Materiel> batch = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Materiel materiel = new Materiel();
+            materiel.setType_equipement("Serveur");
+            materiel.setGamme("Rack");
+            materiel.setNumero_serie("BENCH-" + serial++);
+            materiel.setEmplacement("Salle A");
+            materiel.setMarche(marche);
+            batch.add(materiel);
+        }
+        try (AuditContext.Suppression ignored = audit ? () -> { } : AuditContext.suppress()) {
+            long start = System.nanoTime();
+            tx.executeWithoutResult(status -> materielRepository.saveAll(batch));
+            return System.nanoTime() - start;
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
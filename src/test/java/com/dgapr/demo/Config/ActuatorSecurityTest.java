@@ -0,0 +1,77 @@
+package com.dgapr.demo.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks who reaches the actuator endpoints: anonymous probes get the liveness and readiness status
+ * alone, the health details are shown to admins only and metrics to super admins only.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:actuator;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.mail.host=localhost",
+        "spring.mail.port=25",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "management.health.mail.enabled=false",
+        "jwt.secret.v2=0123456789abcdef0123456789abcdef0123456789abcdef",
+        "jwt.expirationMs=3600000",
+        "jwt.refreshExpirationMs=86400000"
+})
+@AutoConfigureMockMvc
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void probesAreAnonymousAndShowNoDetails() throws Exception {
+        mvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components").doesNotExist());
+        mvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.components").doesNotExist());
+    }
+
+    @Test
+    void healthNeedsALogin() throws Exception {
+        mvc.perform(get("/actuator/health")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adminSeesHealthComponents() throws Exception {
+        mvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.components.db.status").value("UP"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userSeesHealthStatusOnly() throws Exception {
+        mvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void metricsAreForSuperAdmins() throws Exception {
+        mvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+    }
+}
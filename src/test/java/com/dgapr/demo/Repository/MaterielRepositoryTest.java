@@ -0,0 +1,122 @@
+package com.dgapr.demo.Repository;
+
+import com.dgapr.demo.Dto.MaterielResponseDto;
+import com.dgapr.demo.Model.Marche;
+import com.dgapr.demo.Model.Materiel;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that materiel listings issue a constant number of statements, whatever the number of
+ * rows and of distinct owning marchés (no N+1 on {@link Materiel#getMarche()}).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:materiel;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MaterielRepositoryTest {
+
+    @Autowired
+    private MaterielRepository materielRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void projectedListingUsesOneStatementRegardlessOfRowCount() {
+        insert(3, 2);
+        long few = countStatements(() -> materielRepository.findAllProjected());
+
+        insert(40, 5);
+        long many = countStatements(() -> materielRepository.findAllProjected());
+
+        assertThat(few).isEqualTo(1);
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void fetchJoinListingUsesOneStatementRegardlessOfRowCount() {
+        insert(3, 2);
+        long few = countStatements(() -> touchMarches(materielRepository.findAllWithMarche()));
+
+        insert(40, 5);
+        long many = countStatements(() -> touchMarches(materielRepository.findAllWithMarche()));
+
+        assertThat(few).isEqualTo(1);
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void listingByMarcheCarriesMarcheIdAndTitle() {
+        List<Marche> marches = insert(2, 3);
+        Marche first = marches.get(0);
+
+        List<MaterielResponseDto> rows = materielRepository.findProjectedByMarcheId(first.getId());
+
+        assertThat(rows).hasSize(3).allSatisfy(row -> {
+            assertThat(row.getMarcheId()).isEqualTo(first.getId());
+            assertThat(row.getTitre_marche()).isEqualTo(first.getTitre_marche());
+        });
+    }
+
+    /**
+     * Runs the query against an empty persistence context and returns the number of JDBC statements it prepared.
+     */
+    private long countStatements(Supplier<?> query) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+        query.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static List<Materiel> touchMarches(List<Materiel> materiels) {
+        materiels.forEach(m -> m.getMarche().getTitre_marche());
+        return materiels;
+    }
+
+    private List<Marche> insert(int marcheCount, int materielsPerMarche) {
+        List<Marche> marches = new java.util.ArrayList<>();
+        for (int i = 0; i < marcheCount; i++) {
+            Marche marche = new Marche();
+            marche.setTitre_marche("Marche " + i);
+            marche.setSociete("Societe " + i);
+            em.persist(marche);
+            for (int j = 0; j < materielsPerMarche; j++) {
+                Materiel materiel = new Materiel();
+                materiel.setType_equipement("Serveur");
+                materiel.setNumero_serie("SN-" + marche.getId() + "-" + j);
+                materiel.setMarche(marche);
+                em.persist(materiel);
+            }
+            marches.add(marche);
+        }
+        return marches;
+    }
+}
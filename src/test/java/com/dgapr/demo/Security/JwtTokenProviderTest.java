@@ -0,0 +1,68 @@
+package com.dgapr.demo.Security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks which tokens without a {@code kid} header, signed with the shared HMAC secret, are accepted.
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final long EXPIRATION_MS = 3_600_000;
+
+    @Test
+    void hmacTokensAreAcceptedWhileHmacSigns() {
+        JwtTokenProvider provider = provider("HS256", 0);
+
+        assertThat(provider.resolveClaims(hmacToken())).isPresent();
+    }
+
+    @Test
+    void hmacTokensAreRejectedOnceAsymmetricSigningIsOn() {
+        JwtTokenProvider provider = provider("ES256", 0);
+
+        assertThat(provider.resolveClaims(hmacToken())).isEmpty();
+    }
+
+    @Test
+    void hmacTokensAreAcceptedDuringTheMigrationWindow() {
+        JwtTokenProvider provider = provider("EdDSA", EXPIRATION_MS);
+
+        assertThat(provider.resolveClaims(hmacToken())).isPresent();
+    }
+
+    private static JwtTokenProvider provider(String algorithm, long migrationWindowMs) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "keysDir", "");
+        ReflectionTestUtils.setField(keyRing, "jwtExpirationMs", EXPIRATION_MS);
+        keyRing.init();
+
+        JwtTokenProvider provider = new JwtTokenProvider(keyRing);
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", EXPIRATION_MS);
+        ReflectionTestUtils.setField(provider, "hmacMigrationWindowMs", migrationWindowMs);
+        provider.init();
+        return provider;
+    }
+
+    private static String hmacToken() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .subject("admin")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusMillis(EXPIRATION_MS)))
+                .claim("v", 0L)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
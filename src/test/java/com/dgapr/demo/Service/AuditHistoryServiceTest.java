@@ -0,0 +1,121 @@
+package com.dgapr.demo.Service;
+
+import com.dgapr.demo.Audit.AuditDetailsCodec;
+import com.dgapr.demo.Audit.AuditHistorySink;
+import com.dgapr.demo.Dto.AuditDto.AuditLogRow;
+import com.dgapr.demo.Dto.AuditDto.HistoricalState;
+import com.dgapr.demo.Model.AuditSnapshot;
+import com.dgapr.demo.Repository.AuditLogRepository;
+import com.dgapr.demo.Repository.AuditSnapshotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks how {@link AuditHistoryService} rebuilds a row from a snapshot and the diffs after it.
+ * Details are plain JSON here, through a stub codec.
+ */
+class AuditHistoryServiceTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Instant SNAPSHOT_AT = Instant.parse("2025-03-01T10:00:00Z");
+    private static final Instant AT = Instant.parse("2025-03-10T00:00:00Z");
+
+    private final AuditDetailsCodec codec = mock(AuditDetailsCodec.class);
+    private final AuditHistoryService service = new AuditHistoryService(mock(AuditSnapshotRepository.class),
+            mock(AuditLogRepository.class), mock(AuditHistorySink.class), codec);
+
+    @BeforeEach
+    void setUp() {
+        when(codec.decodeTree(any())).thenAnswer(invocation -> {
+            try {
+                return JSON.readTree((byte[]) invocation.getArgument(0));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unknown audit details format", e);
+            }
+        });
+    }
+
+    @Test
+    void snapshotAloneIsTheState() {
+        HistoricalState state = service.rebuild(snapshot("{\"id\":1,\"commonName\":\"a.example\"}", false), List.of(), AT);
+
+        assertThat(state.state().toString()).isEqualTo("{\"id\":1,\"commonName\":\"a.example\"}");
+        assertThat(state.lastChange()).isEqualTo(SNAPSHOT_AT);
+        assertThat(state.deleted()).isFalse();
+        assertThat(state.at()).isEqualTo(AT);
+    }
+
+    @Test
+    void diffsAreAppliedInOrder() {
+        HistoricalState state = service.rebuild(snapshot("{\"id\":1,\"commonName\":\"a.example\",\"type\":\"SSL\"}", false),
+                List.of(
+                        change(1, "UPDATE", "{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}", "2025-03-02T10:00:00Z"),
+                        change(2, "UPDATE", "{\"commonName\":{\"old\":\"b.example\",\"new\":\"c.example\"}}", "2025-03-03T10:00:00Z")),
+                AT);
+
+        assertThat(state.state().toString()).isEqualTo("{\"id\":1,\"commonName\":\"c.example\",\"type\":\"SSL\"}");
+        assertThat(state.lastChange()).isEqualTo(Instant.parse("2025-03-03T10:00:00Z"));
+    }
+
+    @Test
+    void softDeletedRowShowsIsDeleted() {
+        HistoricalState state = service.rebuild(snapshot("{\"id\":1,\"isDeleted\":false}", false),
+                List.of(change(1, "DELETE", "{\"isDeleted\":{\"old\":false,\"new\":true}}", "2025-03-02T10:00:00Z")),
+                AT);
+
+        assertThat(state.state().get("isDeleted").booleanValue()).isTrue();
+        assertThat(state.deleted()).isFalse();
+    }
+
+    @Test
+    void hardDeletedRowIsFlagged() {
+        HistoricalState state = service.rebuild(snapshot("{\"id\":1,\"commonName\":\"a.example\"}", false),
+                List.of(change(1, "HARD_DELETE", "{\"id\":1,\"commonName\":\"a.example\"}", "2025-03-02T10:00:00Z")),
+                AT);
+
+        assertThat(state.deleted()).isTrue();
+        assertThat(state.state().toString()).isEqualTo("{\"id\":1,\"commonName\":\"a.example\"}");
+    }
+
+    @Test
+    void unreadableAndTextEntriesAreSkipped() {
+        HistoricalState state = service.rebuild(snapshot("{\"id\":1,\"commonName\":\"a.example\"}", false),
+                List.of(
+                        new AuditLogRow(1L, "Certificate", "1", "UPDATE", "admin", Instant.parse("2025-03-02T10:00:00Z"),
+                                null, new byte[]{1, 2, 3}),
+                        new AuditLogRow(2L, "Certificate", "1", "UPDATE", "admin", Instant.parse("2025-03-02T11:00:00Z"),
+                                "{\"commonName\":\"legacy\"}", null),
+                        change(3, "UPDATE", "{\"commonName\":{\"old\":\"a.example\",\"new\":\"b.example\"}}", "2025-03-03T10:00:00Z")),
+                AT);
+
+        assertThat(state.state().toString()).isEqualTo("{\"id\":1,\"commonName\":\"b.example\"}");
+    }
+
+    private static AuditSnapshot snapshot(String state, boolean deleted) {
+        AuditSnapshot snapshot = new AuditSnapshot();
+        snapshot.setId(1L);
+        snapshot.setTableName("Certificate");
+        snapshot.setRowId("1");
+        snapshot.setAsOf(SNAPSHOT_AT);
+        snapshot.setLastOutboxId(0L);
+        snapshot.setStateData(state.getBytes(StandardCharsets.UTF_8));
+        snapshot.setDeleted(deleted);
+        return snapshot;
+    }
+
+    private static AuditLogRow change(long auditId, String operation, String details, String timestamp) {
+        return new AuditLogRow(auditId, "Certificate", "1", operation, "admin", Instant.parse(timestamp), null,
+                details.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package com.dgapr.demo.Service;
+
+import com.dgapr.demo.Dto.MaterielResponseDto;
+import com.dgapr.demo.Model.WarrantyNotification;
+import com.dgapr.demo.Repository.MarcheRepository;
+import com.dgapr.demo.Repository.MaterielRepository;
+import com.dgapr.demo.Repository.UserRepository;
+import com.dgapr.demo.Repository.WarrantyNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that warranty alerts are only recorded once their email was sent.
+ */
+class WarrantyServiceTest {
+
+    private final MaterielRepository materielRepository = mock(MaterielRepository.class);
+    private final WarrantyNotificationRepository notificationRepository = mock(WarrantyNotificationRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+
+    private final WarrantyService service = new WarrantyService(mock(MarcheRepository.class), materielRepository,
+            notificationRepository, userRepository, notificationService, mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "daysBefore", 60);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        when(userRepository.findEmailsByRolesAndStatus(any(), any())).thenReturn(List.of("admin@example.com"));
+        when(materielRepository.findWarrantyEndingNotNotified(any(), any(), eq("BEFORE_WARRANTY_END"), eq(0L), any()))
+                .thenReturn(List.of(materiel(1L), materiel(2L)));
+    }
+
+    @Test
+    void alertsAreRecordedAfterTheEmailIsSent() {
+        service.sendWarrantyEndNotifications();
+
+        verify(notificationService).sendEmail(eq(List.of("admin@example.com")), anyString(), anyString());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WarrantyNotification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(WarrantyNotification::getMaterielId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void alertsThatCouldNotBeSentAreNotRecorded() {
+        doThrow(new MailSendException("SMTP down")).when(notificationService).sendEmail(anyList(), anyString(), anyString());
+
+        service.sendWarrantyEndNotifications();
+
+        verify(notificationRepository, never()).saveAll(any());
+    }
+
+    private static MaterielResponseDto materiel(Long id) {
+        return new MaterielResponseDto(id, "Serveur", "R740", "SN-" + id, "DC1", null, null,
+                LocalDate.now().plusDays(30), 0L, 1L, "Marché 1", 0L);
+    }
+}
@@ -0,0 +1,57 @@
+package com.dgapr.demo.Util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that versions are tagged strongly, that {@code If-Match} only accepts strong tags and that
+ * {@code If-None-Match} keeps the weak comparison.
+ */
+class ETagsTest {
+
+    @Test
+    void versionTagIsStrong() {
+        assertThat(ETags.of(3L)).isEqualTo("\"3\"");
+        assertThat(ETags.of(null)).isEqualTo("\"0\"");
+    }
+
+    @Test
+    void tagWithParentIsWeak() {
+        assertThat(ETags.of(3L, 7L)).isEqualTo("W/\"3-7\"");
+        assertThat(ETags.of(3L, null)).isEqualTo("W/\"3\"");
+    }
+
+    @Test
+    void ifMatchReadsTheVersionOfAStrongTag() {
+        assertThat(ETags.parseVersion(ETags.of(3L))).isEqualTo(3L);
+        assertThat(ETags.parseVersion(" \"12\" ")).isEqualTo(12L);
+        assertThat(ETags.parseVersion("*")).isNull();
+        assertThat(ETags.parseVersion(null)).isNull();
+    }
+
+    @Test
+    void ifMatchRejectsAWeakTag() {
+        assertThatThrownBy(() -> ETags.parseVersion("W/\"3\""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Weak ETag");
+    }
+
+    @Test
+    void ifMatchRejectsAnythingButOneVersion() {
+        assertThatThrownBy(() -> ETags.parseVersion("\"3\", \"4\"")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ETags.parseVersion("\"abc\"")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ETags.parseVersion("3")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() {
+        assertThat(ETags.matches("W/\"3\"", ETags.of(3L))).isTrue();
+        assertThat(ETags.matches("\"1\", \"3\"", ETags.of(3L))).isTrue();
+        assertThat(ETags.matches("\"3-7\"", ETags.of(3L, 7L))).isTrue();
+        assertThat(ETags.matches("*", ETags.of(3L))).isTrue();
+        assertThat(ETags.matches("\"4\"", ETags.of(3L))).isFalse();
+        assertThat(ETags.matches(null, ETags.of(3L))).isFalse();
+    }
+}